@@ -0,0 +1,76 @@
+// Platform vs virtual thread comparison for the servlet stack (k6, https://k6.io).
+//
+// Authenticated requests arrive at a fixed rate while a steady stream of password logins runs bcrypt on the
+// same node. Run it once per configuration and compare the latency of the "token" scenario:
+//
+//   spring.threads.virtual.enabled=false                        (platform request pool)
+//   spring.threads.virtual.enabled=true                         (virtual threads, BoundedPasswordEncoder)
+//
+//   k6 run -e USERNAME=load@example.com -e PASSWORD=... load/virtual-threads.js
+//
+// The account must exist and be verified. All logins come from one IP, so keep LOGIN_RATE at or below
+// app.loginThrottle.localMaxPerSecond (default 10), or logins are answered with 429 before they reach bcrypt.
+import http from 'k6/http';
+import {check, fail} from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const USERNAME = __ENV.USERNAME;
+const PASSWORD = __ENV.PASSWORD;
+const DURATION = __ENV.DURATION || '60s';
+const TOKEN_RATE = Number(__ENV.TOKEN_RATE || 1000);
+const LOGIN_RATE = Number(__ENV.LOGIN_RATE || 5);
+
+export const options = {
+    summaryTrendStats: ['med', 'p(90)', 'p(99)', 'max'],
+    scenarios: {
+        token: {
+            executor: 'constant-arrival-rate',
+            exec: 'token',
+            rate: TOKEN_RATE,
+            timeUnit: '1s',
+            duration: DURATION,
+            preAllocatedVUs: 200,
+            maxVUs: 2000,
+            tags: {scenario: 'token'},
+        },
+        login: {
+            executor: 'constant-arrival-rate',
+            exec: 'login',
+            rate: LOGIN_RATE,
+            timeUnit: '1s',
+            duration: DURATION,
+            preAllocatedVUs: 20,
+            maxVUs: 200,
+            tags: {scenario: 'login'},
+        },
+    },
+    // per-scenario latency lines in the end-of-test summary
+    thresholds: {
+        'http_req_duration{scenario:token}': ['max>=0'],
+        'http_req_duration{scenario:login}': ['max>=0'],
+    },
+};
+
+function passwordLogin() {
+    return http.post(`${BASE_URL}/api/auth/login`, {username: USERNAME, password: PASSWORD});
+}
+
+export function setup() {
+    if (!USERNAME || !PASSWORD) fail('USERNAME and PASSWORD are required');
+
+    const res = passwordLogin();
+    if (res.status !== 200) fail(`login failed with ${res.status}: ${res.body}`);
+    return {accessToken: res.json('accessToken')};
+}
+
+export function token(data) {
+    const res = http.get(`${BASE_URL}/user/secured`, {
+        headers: {Authorization: `Bearer ${data.accessToken}`},
+    });
+    check(res, {'token 200': r => r.status === 200});
+}
+
+export function login() {
+    const res = passwordLogin();
+    check(res, {'login 200': r => r.status === 200});
+}
@@ -0,0 +1,46 @@
+package d76.app.security.jwt;
+
+import d76.app.security.jwt.key.TestKeyRings;
+import d76.app.security.revocation.TestRevocations;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HS256 access-token verification through the {@link AccessTokenDecoder} fast path against the JJWT parser that
+ * {@link JwtService#extractClaims} uses. The verified-token cache is off, so every call verifies the signature.
+ * Run with {@code -prof gc} to compare allocation per decode as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccessTokenDecoderBenchmark {
+
+    private JwtService jwtService;
+    private AccessTokenDecoder decoder;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        var keyRing = TestKeyRings.hs256();
+        jwtService = new JwtService(keyRing, null, false, 900, 300, 180);
+        decoder = new AccessTokenDecoder(jwtService, keyRing, TestRevocations.empty(), null, false, 0);
+        token = new TokenMinter(keyRing)
+                .accessToken(42, "user@example.com", "EMAIL", List.of("ROLE_USER", "ROLE_ADMIN"), 3600);
+    }
+
+    @Benchmark
+    public AccessTokenClaims fastPath() {
+        return decoder.decode(token);
+    }
+
+    @Benchmark
+    public Claims jjwtParser() {
+        return jwtService.extractClaims(token);
+    }
+}
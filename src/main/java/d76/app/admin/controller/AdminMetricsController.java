@@ -0,0 +1,32 @@
+package d76.app.admin.controller;
+
+import d76.app.core.metrics.MetricsSource;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.NullMarked;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+@RequestMapping("/api/admin/metrics")
+@RequiredArgsConstructor
+@NullMarked
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminMetricsController {
+
+    private final List<MetricsSource> metricsSources;
+
+    @GetMapping
+    Map<String, Map<String, Object>> metrics() {
+        Map<String, Map<String, Object>> response = new TreeMap<>();
+        for (var source : metricsSources) {
+            response.put(source.metricsName(), source.metrics());
+        }
+        return response;
+    }
+}
@@ -0,0 +1,35 @@
+package d76.app.admin.controller;
+
+import d76.app.admin.dto.RevokeTokenRequest;
+import d76.app.auth.exception.AuthErrorCode;
+import d76.app.core.exception.BusinessException;
+import d76.app.security.jwt.JwtService;
+import d76.app.security.revocation.RevokedTokenRegistry;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.NullMarked;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/tokens")
+@RequiredArgsConstructor
+@NullMarked
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminTokenController {
+
+    private final JwtService jwtService;
+    private final RevokedTokenRegistry revokedTokens;
+
+    @PostMapping("/revoke")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    void revoke(@RequestBody @Valid RevokeTokenRequest request) {
+        var claims = jwtService.extractClaims(request.token());
+
+        if (claims.getId() == null || claims.getExpiration() == null) {
+            throw new BusinessException(AuthErrorCode.INVALID_TOKEN, "Token cannot be revoked, it carries no jti");
+        }
+        revokedTokens.revoke(claims.getId(), claims.getExpiration().getTime() / 1000);
+    }
+}
@@ -0,0 +1,61 @@
+package d76.app.admin.controller;
+
+import d76.app.admin.dto.AdminUserPage;
+import d76.app.admin.dto.UserImportResponse;
+import d76.app.admin.service.AdminUserQueryService;
+import d76.app.admin.service.UserImportService;
+import d76.app.auth.model.IdentityProvider;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Servlet only: the import reads the raw request stream and the export writes to the raw response stream.
+ */
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiredArgsConstructor
+@NullMarked
+@PreAuthorize("hasRole('ADMIN')")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AdminUserController {
+
+    private final UserImportService importService;
+    private final AdminUserQueryService queryService;
+
+    @GetMapping
+    AdminUserPage search(
+            @RequestParam(required = false) @Nullable String emailPrefix,
+            @RequestParam(required = false) @Nullable String usernamePrefix,
+            @RequestParam(required = false) @Nullable IdentityProvider provider,
+            @RequestParam(required = false) @Nullable String role,
+            @RequestParam(required = false) @Nullable String after,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        return queryService.search(emailPrefix, usernamePrefix, provider, role, after, limit);
+    }
+
+    @GetMapping(path = "/export", produces = UserImportService.NDJSON)
+    ResponseEntity<StreamingResponseBody> export() {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\"")
+                .body(queryService::export);
+    }
+
+    @PostMapping(path = "/import", consumes = {UserImportService.NDJSON, UserImportService.CSV})
+    UserImportResponse importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body
+    ) throws IOException {
+        return importService.importUsers(body, contentType);
+    }
+}
@@ -0,0 +1,13 @@
+package d76.app.admin.dto;
+
+import java.util.List;
+
+/**
+ * One page of a user search, newest first. Pass {@code nextCursor} as {@code after} for the next page;
+ * it is null on the last one.
+ */
+public record AdminUserPage(
+        List<AdminUserResponse> users,
+        String nextCursor
+) {
+}
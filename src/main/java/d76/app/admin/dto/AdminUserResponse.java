@@ -0,0 +1,14 @@
+package d76.app.admin.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record AdminUserResponse(
+        Long id,
+        String username,
+        String email,
+        List<String> roles,
+        List<String> identityProviders,
+        Instant createdAt
+) {
+}
@@ -0,0 +1,8 @@
+package d76.app.admin.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RevokeTokenRequest(
+        @NotBlank String token
+) {
+}
@@ -0,0 +1,18 @@
+package d76.app.admin.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. {@code errors} lists rejected rows by line number, capped at
+ * {@code app.import.maxReportedErrors}; {@code failed} counts all of them.
+ */
+public record UserImportResponse(
+        long imported,
+        long failed,
+        List<RowError> errors,
+        boolean errorsTruncated
+) {
+
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,20 @@
+package d76.app.admin.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * One user of a bulk import. Exactly one of {@code password} (plaintext) and {@code passwordHash} (bcrypt) is set;
+ * {@code roles} defaults to USER.
+ */
+public record UserImportRow(
+        @NotBlank @Email String email,
+        @NotBlank @Size(max = 255) String username,
+        @Size(min = 8) String password,
+        String passwordHash,
+        List<String> roles
+) {
+}
@@ -0,0 +1,196 @@
+package d76.app.admin.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import d76.app.admin.dto.AdminUserPage;
+import d76.app.admin.dto.AdminUserResponse;
+import d76.app.auth.model.IdentityProvider;
+import d76.app.core.exception.BusinessException;
+import d76.app.user.entity.Role;
+import d76.app.user.entity.Users;
+import d76.app.user.exception.UserErrorCode;
+import d76.app.user.model.UserExportView;
+import d76.app.user.repo.UsersRepository;
+import jakarta.persistence.criteria.Predicate;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Admin user listing with keyset pagination and a streaming export.
+ * <p>
+ * Pages are ordered by {@code (createdAt, id)} descending and continue strictly after the cursor, so every page
+ * costs the same index seek no matter how deep it is, and rows inserted meanwhile do not shift later pages.
+ */
+@Service
+@RequiredArgsConstructor
+public class AdminUserQueryService {
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private static final Base64.Encoder CURSOR_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder CURSOR_DECODER = Base64.getUrlDecoder();
+
+    private final UsersRepository usersRepository;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    @Transactional(readOnly = true)
+    public AdminUserPage search(
+            @Nullable String emailPrefix,
+            @Nullable String usernamePrefix,
+            @Nullable IdentityProvider provider,
+            @Nullable String role,
+            @Nullable String after,
+            int limit
+    ) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        var spec = filters(emailPrefix, usernamePrefix, provider, role, after == null ? null : Cursor.decode(after));
+        var sort = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+        // one extra row tells whether another page exists
+        List<Users> users = usersRepository.findBy(spec, query -> query.sortBy(sort).limit(pageSize + 1).all());
+
+        boolean hasMore = users.size() > pageSize;
+        if (hasMore) users = users.subList(0, pageSize);
+
+        // roles and providers of the page are loaded in one batch each (@BatchSize), not per user
+        var page = users.stream().map(AdminUserQueryService::toResponse).toList();
+
+        String nextCursor = null;
+        if (hasMore) {
+            var last = users.getLast();
+            nextCursor = new Cursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new AdminUserPage(page, nextCursor);
+    }
+
+    /**
+     * Writes every user as one JSON line, ordered by id. Rows are read through a database cursor and written
+     * as they arrive, so memory use does not grow with the table.
+     */
+    public void export(OutputStream out) {
+        var readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        readOnly.executeWithoutResult(status -> {
+            try (var rows = usersRepository.streamForExport()) {
+                rows.forEach(row -> writeLine(out, toResponse(row)));
+            }
+        });
+    }
+
+    private void writeLine(OutputStream out, AdminUserResponse user) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(user));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Specification<Users> filters(
+            @Nullable String emailPrefix,
+            @Nullable String usernamePrefix,
+            @Nullable IdentityProvider provider,
+            @Nullable String role,
+            @Nullable Cursor cursor
+    ) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (emailPrefix != null && !emailPrefix.isBlank()) {
+                predicates.add(cb.like(root.get("email"), likePrefix(emailPrefix), '\\'));
+            }
+            if (usernamePrefix != null && !usernamePrefix.isBlank()) {
+                predicates.add(cb.like(root.get("username"), likePrefix(usernamePrefix), '\\'));
+            }
+            if (provider != null) {
+                predicates.add(cb.isMember(provider, root.get("identityProviders")));
+            }
+            if (role != null && !role.isBlank()) {
+                // exists rather than a join, so users are not repeated and the limit stays exact
+                var subquery = query.subquery(Long.class);
+                var user = subquery.from(Users.class);
+                var roles = user.<Users, Role>join("roles");
+                subquery.select(user.get("id")).where(
+                        cb.equal(user.get("id"), root.get("id")),
+                        cb.equal(roles.get("name"), role)
+                );
+                predicates.add(cb.exists(subquery));
+            }
+            if (cursor != null) {
+                predicates.add(cb.or(
+                        cb.lessThan(root.get("createdAt"), cursor.createdAt()),
+                        cb.and(
+                                cb.equal(root.get("createdAt"), cursor.createdAt()),
+                                cb.lessThan(root.get("id"), cursor.id())
+                        )
+                ));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private static String likePrefix(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    private static AdminUserResponse toResponse(Users user) {
+        return new AdminUserResponse(
+                user.getId(),
+                user.getUsername(),
+                user.getEmail(),
+                user.getRoles().stream().map(Role::getName).sorted().toList(),
+                user.getIdentityProviders().stream().map(IdentityProvider::name).sorted().toList(),
+                user.getCreatedAt()
+        );
+    }
+
+    private static AdminUserResponse toResponse(UserExportView row) {
+        return new AdminUserResponse(
+                row.getId(),
+                row.getUsername(),
+                row.getEmail(),
+                split(row.getRoles()),
+                split(row.getProviders()),
+                row.getCreatedAt()
+        );
+    }
+
+    private static List<String> split(@Nullable String values) {
+        return values == null || values.isEmpty() ? List.of() : Arrays.stream(values.split(",")).sorted().toList();
+    }
+
+    private record Cursor(Instant createdAt, Long id) {
+
+        String encode() {
+            var raw = createdAt + "|" + id;
+            return CURSOR_ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                var raw = new String(CURSOR_DECODER.decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new Cursor(Instant.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new BusinessException(UserErrorCode.INVALID_CURSOR);
+            }
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package d76.app.admin.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import d76.app.admin.dto.UserImportResponse;
+import d76.app.admin.dto.UserImportRow;
+import d76.app.auth.model.IdentityProvider;
+import d76.app.security.crypto.BoundedPasswordEncoder;
+import d76.app.user.entity.Users;
+import d76.app.user.model.UserIdentifiers;
+import d76.app.user.repo.UsersRepository;
+import d76.app.user.service.RoleCatalog;
+import d76.app.user.service.UserAvailabilityFilter;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Streams users from NDJSON or CSV into the database in chunks of {@code app.import.chunkSize}.
+ * <p>
+ * Each chunk is validated, checked for duplicates (within the chunk and against the table), hashed and committed
+ * in its own transaction, so memory stays flat and a bad row only costs that row. Plaintext passwords are hashed
+ * on an import pool of {@code app.import.hashThreads}, separate from the login hashing pool; bcrypt hashes are
+ * stored as given. If a chunk fails to commit, e.g. because a concurrent registration took a name, its rows are
+ * retried one by one to report the offending ones.
+ * <p>
+ * CSV needs a header line naming its columns out of {@code email,username,password,passwordHash,roles};
+ * roles are separated by {@code |}.
+ */
+@Slf4j
+@Service
+public class UserImportService implements DisposableBean {
+
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String CSV = "text/csv";
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+    private static final String BCRYPT_PREFIX = "{bcrypt}";
+
+    private final UsersRepository usersRepository;
+    private final RoleCatalog roleCatalog;
+    private final UserAvailabilityFilter availabilityFilter;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transaction;
+
+    private final int chunkSize;
+    private final int maxReportedErrors;
+    private final ExecutorService hashingPool;
+
+    UserImportService(
+            UsersRepository usersRepository,
+            RoleCatalog roleCatalog,
+            UserAvailabilityFilter availabilityFilter,
+            BoundedPasswordEncoder passwordEncoder,
+            Validator validator,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.import.chunkSize:1000}") int chunkSize,
+            @Value("${app.import.hashThreads:0}") int hashThreads,
+            @Value("${app.import.maxReportedErrors:1000}") int maxReportedErrors
+    ) {
+        this.usersRepository = usersRepository;
+        this.roleCatalog = roleCatalog;
+        this.availabilityFilter = availabilityFilter;
+        this.passwordEncoder = passwordEncoder.unbounded();
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+
+        // default: half the cores, the other half stays with logins
+        int threads = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        var threadIds = new AtomicInteger();
+        this.hashingPool = Executors.newFixedThreadPool(threads, runnable -> {
+            var thread = new Thread(runnable, "import-hash-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public UserImportResponse importUsers(InputStream body, String contentType) throws IOException {
+        boolean csv = contentType.startsWith(CSV);
+        var run = new ImportRun();
+
+        try (var reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String[] csvHeader = null;
+            List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+
+                if (csv && csvHeader == null) {
+                    csvHeader = CsvLine.split(line).stream().map(String::trim).toArray(String[]::new);
+                    continue;
+                }
+
+                try {
+                    var row = csv ? CsvLine.toRow(csvHeader, CsvLine.split(line)) : objectMapper.readValue(line, UserImportRow.class);
+                    chunk.add(new ParsedRow(lineNumber, row));
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    run.reject(lineNumber, "Malformed row");
+                }
+
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, run);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) importChunk(chunk, run);
+        }
+
+        log.info("User import finished imported={} failed={}", run.imported, run.failed);
+        return new UserImportResponse(run.imported, run.failed, run.errors, run.failed > run.errors.size());
+    }
+
+    private void importChunk(List<ParsedRow> chunk, ImportRun run) {
+        var accepted = validate(chunk, run);
+        if (accepted.isEmpty()) return;
+
+        var hashes = hash(accepted, run);
+        if (hashes.isEmpty()) return;
+
+        try {
+            // built inside the transaction, the role references are only valid there
+            var users = transaction.execute(status -> usersRepository.saveAll(
+                    hashes.entrySet().stream().map(entry -> toUser(entry.getKey().row(), entry.getValue())).toList()));
+            run.imported += users.size();
+            availabilityFilter.addAll(users.stream().map(u -> new UserIdentifiers(u.getUsername(), u.getEmail())).toList());
+        } catch (RuntimeException e) {
+            // fresh entities: the failed ones may already carry ids from the rolled back flush
+            log.warn("Import chunk of {} rows failed, retrying row by row: {}", hashes.size(), e.getMessage());
+            hashes.forEach((row, hash) -> saveOne(row, hash, run));
+        }
+    }
+
+    private List<ParsedRow> validate(List<ParsedRow> chunk, ImportRun run) {
+        List<ParsedRow> valid = new ArrayList<>(chunk.size());
+        Set<String> emails = new HashSet<>();
+        Set<String> usernames = new HashSet<>();
+
+        for (var parsed : chunk) {
+            var row = parsed.row();
+            var violations = validator.validate(row);
+            if (!violations.isEmpty()) {
+                var violation = violations.iterator().next();
+                run.reject(parsed.line(), violation.getPropertyPath() + " " + violation.getMessage());
+                continue;
+            }
+
+            boolean hasPassword = row.password() != null && !row.password().isEmpty();
+            boolean hasHash = row.passwordHash() != null && !row.passwordHash().isEmpty();
+            if (hasPassword == hasHash) {
+                run.reject(parsed.line(), "Exactly one of password and passwordHash is required");
+                continue;
+            }
+            if (hasHash && !BCRYPT_HASH.matcher(stripPrefix(row.passwordHash())).matches()) {
+                run.reject(parsed.line(), "passwordHash is not a bcrypt hash");
+                continue;
+            }
+            var unknownRole = roles(row).stream().filter(role -> !roleCatalog.exists(role)).findFirst();
+            if (unknownRole.isPresent()) {
+                run.reject(parsed.line(), "Unknown role " + unknownRole.get());
+                continue;
+            }
+            if (!emails.add(row.email()) || !usernames.add(row.username())) {
+                run.reject(parsed.line(), "Duplicate email or username within the import");
+                continue;
+            }
+            valid.add(parsed);
+        }
+
+        if (valid.isEmpty()) return valid;
+
+        // one query per column for the whole chunk instead of two per row
+        var takenEmails = usersRepository.findExistingEmails(emails);
+        var takenUsernames = usersRepository.findExistingUsernames(usernames);
+
+        List<ParsedRow> available = new ArrayList<>(valid.size());
+        for (var parsed : valid) {
+            if (takenEmails.contains(parsed.row().email())) {
+                run.reject(parsed.line(), "Email already registered");
+            } else if (takenUsernames.contains(parsed.row().username())) {
+                run.reject(parsed.line(), "Username already taken");
+            } else {
+                available.add(parsed);
+            }
+        }
+        return available;
+    }
+
+    private Map<ParsedRow, String> hash(List<ParsedRow> rows, ImportRun run) {
+        Map<ParsedRow, Future<String>> hashes = new LinkedHashMap<>();
+        for (var parsed : rows) {
+            var row = parsed.row();
+            hashes.put(parsed, row.passwordHash() != null && !row.passwordHash().isEmpty()
+                    ? CompletableFuture.completedFuture(BCRYPT_PREFIX + stripPrefix(row.passwordHash()))
+                    : hashingPool.submit(() -> passwordEncoder.encode(row.password())));
+        }
+
+        Map<ParsedRow, String> hashed = new LinkedHashMap<>();
+        for (var entry : hashes.entrySet()) {
+            var parsed = entry.getKey();
+            try {
+                hashed.put(parsed, entry.getValue().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while hashing imported passwords", e);
+            } catch (ExecutionException e) {
+                run.reject(parsed.line(), "Password could not be hashed");
+            }
+        }
+        return hashed;
+    }
+
+    private void saveOne(ParsedRow row, String passwordHash, ImportRun run) {
+        try {
+            var user = transaction.execute(status -> usersRepository.save(toUser(row.row(), passwordHash)));
+            run.imported++;
+            availabilityFilter.add(user.getUsername(), user.getEmail());
+        } catch (RuntimeException e) {
+            run.reject(row.line(), "Could not be saved, email or username already taken");
+        }
+    }
+
+    private Users toUser(UserImportRow row, String passwordHash) {
+        return Users.builder()
+                .email(row.email())
+                .username(row.username())
+                .password(passwordHash)
+                .roles(roles(row).stream().map(roleCatalog::reference).collect(Collectors.toCollection(HashSet::new)))
+                .identityProviders(new HashSet<>(Set.of(IdentityProvider.EMAIL)))
+                .build();
+    }
+
+    private static List<String> roles(UserImportRow row) {
+        return row.roles() == null || row.roles().isEmpty() ? List.of(RoleCatalog.DEFAULT_ROLE) : row.roles();
+    }
+
+    private static String stripPrefix(String hash) {
+        return hash.startsWith(BCRYPT_PREFIX) ? hash.substring(BCRYPT_PREFIX.length()) : hash;
+    }
+
+    @Override
+    public void destroy() {
+        hashingPool.shutdown();
+    }
+
+    private record ParsedRow(long line, UserImportRow row) {
+    }
+
+    private final class ImportRun {
+
+        private final List<UserImportResponse.RowError> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        void reject(long line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) errors.add(new UserImportResponse.RowError(line, message));
+        }
+    }
+
+    /**
+     * Minimal RFC 4180 field splitting: quoted fields may contain commas and doubled quotes, but not line breaks.
+     */
+    static final class CsvLine {
+
+        private CsvLine() {
+        }
+
+        static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            var field = new StringBuilder();
+            boolean quoted = false;
+
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) throw new IllegalArgumentException("Unterminated quoted field");
+
+            fields.add(field.toString());
+            return fields;
+        }
+
+        static UserImportRow toRow(String[] header, List<String> fields) {
+            if (fields.size() != header.length) throw new IllegalArgumentException("Column count mismatch");
+
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                values.put(header[i], fields.get(i).isEmpty() ? null : fields.get(i));
+            }
+
+            var roles = values.get("roles");
+            return new UserImportRow(
+                    values.get("email"),
+                    values.get("username"),
+                    values.get("password"),
+                    values.get("passwordHash"),
+                    roles == null ? null : List.of(roles.split("\\|"))
+            );
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package d76.app.auth.codec;
+
+import d76.app.auth.model.RefreshTokenFamily;
+import d76.app.core.codec.BinaryInput;
+import d76.app.core.codec.BinaryOutput;
+import d76.app.core.codec.ValueCodec;
+import org.springframework.stereotype.Component;
+
+@Component
+class RefreshTokenFamilyCodec implements ValueCodec<RefreshTokenFamily> {
+
+    @Override
+    public int tag() {
+        return 2;
+    }
+
+    @Override
+    public Class<RefreshTokenFamily> type() {
+        return RefreshTokenFamily.class;
+    }
+
+    @Override
+    public void write(RefreshTokenFamily value, BinaryOutput out) {
+        out.writeString(value.familyId());
+        out.writeNullableLong(value.userId());
+        out.writeString(value.email());
+        out.writeString(value.identityProvider());
+        out.writeStrings(value.roles());
+        out.writeString(value.currentTokenHash());
+        out.writeInstant(value.createdAt());
+        out.writeInstant(value.expiresAt());
+    }
+
+    @Override
+    public RefreshTokenFamily read(BinaryInput in, int version) {
+        return new RefreshTokenFamily(
+                in.readString(),
+                in.readNullableLong(),
+                in.readString(),
+                in.readString(),
+                in.readStrings(),
+                in.readString(),
+                in.readInstant(),
+                in.readInstant()
+        );
+    }
+}
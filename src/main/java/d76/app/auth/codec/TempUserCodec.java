@@ -0,0 +1,33 @@
+package d76.app.auth.codec;
+
+import d76.app.auth.dto.TempUser;
+import d76.app.core.codec.BinaryInput;
+import d76.app.core.codec.BinaryOutput;
+import d76.app.core.codec.ValueCodec;
+import org.springframework.stereotype.Component;
+
+@Component
+class TempUserCodec implements ValueCodec<TempUser> {
+
+    @Override
+    public int tag() {
+        return 3;
+    }
+
+    @Override
+    public Class<TempUser> type() {
+        return TempUser.class;
+    }
+
+    @Override
+    public void write(TempUser value, BinaryOutput out) {
+        out.writeString(value.email());
+        out.writeString(value.username());
+        out.writeString(value.password());
+    }
+
+    @Override
+    public TempUser read(BinaryInput in, int version) {
+        return new TempUser(in.readString(), in.readString(), in.readString());
+    }
+}
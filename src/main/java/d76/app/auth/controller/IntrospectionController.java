@@ -0,0 +1,37 @@
+package d76.app.auth.controller;
+
+import d76.app.auth.dto.BatchIntrospectionRequest;
+import d76.app.auth.dto.BatchIntrospectionResponse;
+import d76.app.auth.dto.IntrospectionRequest;
+import d76.app.auth.dto.IntrospectionResponse;
+import d76.app.auth.service.TokenIntrospectionService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.NullMarked;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@NullMarked
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("api/auth/token/introspect")
+// RFC 7662 §2.1: callers authenticate, otherwise the endpoint is a free token-validity oracle
+@PreAuthorize("hasRole('INTROSPECTION')")
+public class IntrospectionController {
+
+    private final TokenIntrospectionService introspectionService;
+
+    /**
+     * RFC 7662: form-encoded {@code token}; {@code token_type_hint} is accepted and ignored.
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    IntrospectionResponse introspect(@Valid @ModelAttribute IntrospectionRequest request) {
+        return introspectionService.introspect(request.token());
+    }
+
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    BatchIntrospectionResponse introspectBatch(@RequestBody @Valid BatchIntrospectionRequest request) {
+        return new BatchIntrospectionResponse(introspectionService.introspectAll(request.tokens()));
+    }
+}
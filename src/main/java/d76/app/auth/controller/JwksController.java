@@ -0,0 +1,31 @@
+package d76.app.auth.controller;
+
+import d76.app.security.jwt.key.JwtKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.NullMarked;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequiredArgsConstructor
+@NullMarked
+public class JwksController {
+
+    private final JwtKeyRing keyRing;
+
+    /**
+     * Public signing keys for resource servers that verify access tokens locally.
+     * Clients re-fetch on an unknown kid, so a short max-age is enough to keep up with rotation.
+     */
+    @GetMapping("/.well-known/jwks.json")
+    ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(keyRing.jwks());
+    }
+}
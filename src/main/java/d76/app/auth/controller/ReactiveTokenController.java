@@ -0,0 +1,32 @@
+package d76.app.auth.controller;
+
+import d76.app.auth.dto.RefreshTokenRequest;
+import d76.app.auth.dto.TokenRefreshResponse;
+import d76.app.auth.service.ReactiveRefreshTokenService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.NullMarked;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link TokenController} for the reactive mode; returns a {@link Mono} so it stays on the event loop.
+ */
+@NullMarked
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("api/auth/token")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTokenController {
+
+    private final ReactiveRefreshTokenService refreshTokenService;
+
+    @PostMapping("/refresh")
+    Mono<TokenRefreshResponse> refresh(@RequestBody @Valid RefreshTokenRequest request) {
+        return refreshTokenService.refresh(request.refreshToken());
+    }
+}
@@ -0,0 +1,28 @@
+package d76.app.auth.controller;
+
+import d76.app.auth.dto.RefreshTokenRequest;
+import d76.app.auth.dto.TokenRefreshResponse;
+import d76.app.auth.service.RefreshTokenService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.NullMarked;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@NullMarked
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("api/auth/token")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class TokenController {
+
+    private final RefreshTokenService refreshTokenService;
+
+    @PostMapping("/refresh")
+    TokenRefreshResponse refresh(@RequestBody @Valid RefreshTokenRequest request) {
+        return refreshTokenService.refresh(request.refreshToken());
+    }
+}
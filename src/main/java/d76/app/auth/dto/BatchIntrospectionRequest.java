@@ -0,0 +1,12 @@
+package d76.app.auth.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BatchIntrospectionRequest(
+        @NotEmpty @Size(max = 100) List<@NotBlank String> tokens
+) {
+}
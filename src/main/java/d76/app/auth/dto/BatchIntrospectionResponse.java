@@ -0,0 +1,11 @@
+package d76.app.auth.dto;
+
+import java.util.List;
+
+/**
+ * One result per requested token, in request order.
+ */
+public record BatchIntrospectionResponse(
+        List<IntrospectionResponse> results
+) {
+}
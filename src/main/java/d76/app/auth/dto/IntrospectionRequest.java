@@ -0,0 +1,8 @@
+package d76.app.auth.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record IntrospectionRequest(
+        @NotBlank String token
+) {
+}
@@ -0,0 +1,26 @@
+package d76.app.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * RFC 7662 introspection response. Inactive tokens only carry {@code active=false}, never the reason.
+ */
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record IntrospectionResponse(
+        boolean active,
+        @JsonProperty("token_type") String tokenType,
+        String sub,
+        String email,
+        @JsonProperty("identity_provider") String identityProvider,
+        List<String> roles,
+        String jti,
+        Long iat,
+        Long exp
+) {
+    public static final IntrospectionResponse INACTIVE = IntrospectionResponse.builder().active(false).build();
+}
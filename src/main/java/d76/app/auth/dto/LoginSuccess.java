@@ -9,6 +9,7 @@ public record LoginSuccess(
         String status,
         String username,
         String accessToken,
+        String refreshToken,
         String identityProvider,
         Instant issuedAt
 ) {
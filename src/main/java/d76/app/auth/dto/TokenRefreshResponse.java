@@ -0,0 +1,10 @@
+package d76.app.auth.dto;
+
+import java.time.Instant;
+
+public record TokenRefreshResponse(
+        String accessToken,
+        String refreshToken,
+        Instant issuedAt
+) {
+}
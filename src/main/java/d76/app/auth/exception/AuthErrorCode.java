@@ -7,6 +7,8 @@ public enum AuthErrorCode implements ErrorCode {
 
     // authentication
     INVALID_CREDENTIALS(HttpStatus.UNAUTHORIZED, "The provided credentials are invalid."),
+    TOO_MANY_LOGIN_ATTEMPTS(HttpStatus.TOO_MANY_REQUESTS, "Too many failed sign-in attempts, try again later."),
+    AUTHENTICATION_BUSY(HttpStatus.SERVICE_UNAVAILABLE, "Too many password checks in progress, try again shortly."),
     ACCESS_DENIED(HttpStatus.FORBIDDEN, "You do not have permission to access this resource."),
 
     // registration
@@ -27,7 +29,11 @@ public enum AuthErrorCode implements ErrorCode {
                     "Please sign in using a linked method or link this provider in your account settings."),
 
     //jwt
-    INVALID_TOKEN(HttpStatus.UNAUTHORIZED, "Invalid Token");
+    INVALID_TOKEN(HttpStatus.UNAUTHORIZED, "Invalid Token"),
+
+    //refresh token
+    INVALID_REFRESH_TOKEN(HttpStatus.UNAUTHORIZED, "Refresh token is invalid or expired, please sign in again"),
+    REFRESH_TOKEN_REUSED(HttpStatus.UNAUTHORIZED, "Refresh token was already used, all sessions of this login were revoked");
 
 
     private final HttpStatus status;
@@ -0,0 +1,24 @@
+package d76.app.auth.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * All refresh tokens descending from one login. Only {@code currentTokenHash} is valid;
+ * presenting any other token of the family means it was replayed and the family is revoked.
+ * The identity fields let a refresh mint an access token without touching the database.
+ */
+public record RefreshTokenFamily(
+        String familyId,
+        Long userId,
+        String email,
+        String identityProvider,
+        List<String> roles,
+        String currentTokenHash,
+        Instant createdAt,
+        Instant expiresAt
+) {
+    public RefreshTokenFamily rotate(String nextTokenHash) {
+        return new RefreshTokenFamily(familyId, userId, email, identityProvider, roles, nextTokenHash, createdAt, expiresAt);
+    }
+}
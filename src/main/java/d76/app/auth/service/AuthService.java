@@ -9,13 +9,13 @@ import d76.app.notification.email.service.MailService;
 import d76.app.notification.otp.model.OtpPurpose;
 import d76.app.notification.otp.service.OtpService;
 import d76.app.user.service.UserService;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 
 @Service
-@RequiredArgsConstructor
 public class AuthService {
 
     private final UserService userService;
@@ -23,11 +23,30 @@ public class AuthService {
     private final MailService mailService;
     private final CacheService cacheService;
 
+    // the pending registration lives as long as its verification code
+    private final long registerTtlSeconds;
+
+    public AuthService(
+            UserService userService,
+            OtpService otpService,
+            MailService mailService,
+            CacheService cacheService,
+            @Value("${otp.ttl}") long registerTtlSeconds
+    ) {
+        this.userService = userService;
+        this.otpService = otpService;
+        this.mailService = mailService;
+        this.cacheService = cacheService;
+        this.registerTtlSeconds = registerTtlSeconds;
+    }
 
     public void register(RegisterRequest request) {
         userService.assertUsernameAvailable(request.userName());
         userService.assertEmailAvailable(request.email());
 
+        var tempUser = new TempUser(request.email(), request.userName(), request.password());
+        cacheService.put(getTempRegisterKey(request.email()), tempUser, registerTtlSeconds, TimeUnit.SECONDS);
+
         var otpPurpose = OtpPurpose.EMAIL_VERIFICATION;
 
         var otp = otpService.issueOtp(request.email(), otpPurpose);
@@ -35,9 +54,11 @@ public class AuthService {
     }
 
     public RegisterResponse verifyOtp(OtpVerifyRequest request) {
-        otpService.verifyOtp(getTempRegisterKey(request.email()), request.otp(), OtpPurpose.EMAIL_VERIFICATION);
+        // the code is issued per email, by register and by requestOtp alike
+        otpService.verifyOtp(request.email(), request.otp(), OtpPurpose.EMAIL_VERIFICATION);
 
-        var tempUser = cacheService.get(getTempRegisterKey(request.email()), TempUser.class).orElseThrow(
+        // consumed in the same call, so a replayed verification cannot create the user twice
+        var tempUser = cacheService.getAndDelete(getTempRegisterKey(request.email()), TempUser.class).orElseThrow(
                 () -> new BusinessException(AuthErrorCode.REGISTER_SESSION_EXPIRED)
         );
 
@@ -0,0 +1,63 @@
+package d76.app.auth.service;
+
+import d76.app.auth.dto.TokenRefreshResponse;
+import d76.app.auth.exception.AuthErrorCode;
+import d76.app.auth.model.RefreshTokenFamily;
+import d76.app.core.exception.BusinessException;
+import d76.app.core.service.ReactiveCacheService;
+import d76.app.security.principal.UserPrincipal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static d76.app.auth.service.RefreshTokenService.familyKey;
+
+/**
+ * {@link RefreshTokenService} on reactive Redis, same token format and storage layout.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRefreshTokenService {
+
+    private final RefreshTokenService refreshTokenService;
+    private final ReactiveCacheService cacheService;
+
+    public Mono<String> issue(UserPrincipal principal) {
+        return Mono.fromCallable(() -> refreshTokenService.start(principal, Instant.now()))
+                .flatMap(issued -> cacheService
+                        .put(familyKey(issued.family().familyId()), issued.family(), Duration.ofSeconds(issued.ttlSeconds()))
+                        .thenReturn(issued.token()));
+    }
+
+    public Mono<TokenRefreshResponse> refresh(String refreshToken) {
+        return Mono.fromCallable(() -> RefreshTokenService.parse(refreshToken))
+                .flatMap(parsed -> cacheService.get(familyKey(parsed.familyId()), RefreshTokenFamily.class)
+                        .switchIfEmpty(Mono.error(() -> new BusinessException(AuthErrorCode.INVALID_REFRESH_TOKEN)))
+                        .flatMap(family -> {
+                            if (!RefreshTokenService.isCurrent(family, parsed.secret())) {
+                                return cacheService.evict(familyKey(family.familyId()))
+                                        .then(Mono.error(RefreshTokenService.reused(family)));
+                            }
+
+                            var rotated = refreshTokenService.rotate(family, Instant.now());
+                            return cacheService
+                                    .replace(familyKey(family.familyId()), family, rotated.family(), Duration.ofSeconds(rotated.ttlSeconds()))
+                                    .flatMap(replaced -> replaced
+                                            ? Mono.fromCallable(() -> refreshTokenService.respond(rotated))
+                                            : cacheService.evict(familyKey(family.familyId()))
+                                                    .then(Mono.error(RefreshTokenService.reused(family))));
+                        }));
+    }
+
+    public Mono<Void> revoke(String refreshToken) {
+        int dot = refreshToken.indexOf('.');
+        if (dot <= 0) return Mono.empty();
+
+        return cacheService.evict(familyKey(refreshToken.substring(0, dot)));
+    }
+}
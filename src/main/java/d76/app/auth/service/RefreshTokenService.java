@@ -0,0 +1,197 @@
+package d76.app.auth.service;
+
+import d76.app.auth.dto.TokenRefreshResponse;
+import d76.app.auth.exception.AuthErrorCode;
+import d76.app.auth.model.IdentityProvider;
+import d76.app.auth.model.RefreshTokenFamily;
+import d76.app.core.exception.BusinessException;
+import d76.app.core.service.CacheService;
+import d76.app.security.jwt.JwtService;
+import d76.app.security.principal.AuthoritySets;
+import d76.app.security.principal.UserPrincipal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opaque, rotating refresh tokens of the form {@code <familyId>.<secret>}.
+ * <p>
+ * Only the SHA-256 of the current secret is stored, under {@code refresh:family:<familyId>}.
+ * Every refresh replaces the secret; a secret that is not the current one means an earlier token
+ * of the family was replayed, so the whole family is revoked and its holder has to sign in again.
+ * Rotation is a compare-and-set on the stored family, so two refreshes racing with the same token count as reuse too.
+ * A family lives at most {@code jwt.refresh.maxLifetime} seconds, and dies earlier if it is not
+ * used for {@code jwt.refresh.tokenTTL} seconds.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private static final String FAMILY_KEY_PREFIX = "refresh:family:";
+    private static final int FAMILY_ID_BYTES = 16;
+    private static final int SECRET_BYTES = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final CacheService cacheService;
+    private final JwtService jwtService;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final Duration idleTTL;
+    private final Duration maxLifetime;
+
+    public RefreshTokenService(
+            CacheService cacheService,
+            JwtService jwtService,
+            @Value("${jwt.refresh.tokenTTL:1209600}") long idleTTLSeconds,
+            @Value("${jwt.refresh.maxLifetime:2592000}") long maxLifetimeSeconds
+    ) {
+        this.cacheService = cacheService;
+        this.jwtService = jwtService;
+        this.idleTTL = Duration.ofSeconds(idleTTLSeconds);
+        this.maxLifetime = Duration.ofSeconds(maxLifetimeSeconds);
+    }
+
+    /**
+     * Starts a new family for a freshly authenticated principal and returns its first refresh token.
+     */
+    public String issue(UserPrincipal principal) {
+        var issued = start(principal, Instant.now());
+        cacheService.put(familyKey(issued.family().familyId()), issued.family(), issued.ttlSeconds(), TimeUnit.SECONDS);
+        return issued.token();
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and the next refresh token of the same family.
+     * Identity and roles come from the family, so neither the password encoder nor the database is involved.
+     */
+    public TokenRefreshResponse refresh(String refreshToken) {
+        var parsed = parse(refreshToken);
+        var family = cacheService.get(familyKey(parsed.familyId()), RefreshTokenFamily.class)
+                .orElseThrow(() -> new BusinessException(AuthErrorCode.INVALID_REFRESH_TOKEN));
+
+        if (!isCurrent(family, parsed.secret())) {
+            cacheService.evict(familyKey(family.familyId()));
+            throw reused(family);
+        }
+
+        // compare-and-set: of two refreshes racing with the same token only one rotates, the other counts as reuse
+        var rotated = rotate(family, Instant.now());
+        if (!cacheService.replace(familyKey(family.familyId()), family, rotated.family(), rotated.ttlSeconds(), TimeUnit.SECONDS)) {
+            cacheService.evict(familyKey(family.familyId()));
+            throw reused(family);
+        }
+        return respond(rotated);
+    }
+
+    /**
+     * Revokes the family the token belongs to. Unknown or malformed tokens are ignored.
+     */
+    public void revoke(String refreshToken) {
+        int dot = refreshToken.indexOf('.');
+        if (dot <= 0) return;
+
+        cacheService.evict(familyKey(refreshToken.substring(0, dot)));
+    }
+
+    // building blocks shared with ReactiveRefreshTokenService, free of any storage access
+
+    static String familyKey(String familyId) {
+        return FAMILY_KEY_PREFIX + familyId;
+    }
+
+    Issued start(UserPrincipal principal, Instant now) {
+        String familyId = randomToken(FAMILY_ID_BYTES);
+        String secret = randomToken(SECRET_BYTES);
+
+        var family = new RefreshTokenFamily(
+                familyId,
+                principal.getUserId(),
+                principal.getUsername(),
+                principal.getIdentityProvider().name(),
+                principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList(),
+                hash(secret),
+                now,
+                now.plus(maxLifetime)
+        );
+        return new Issued(familyId + "." + secret, family, ttlSeconds(family, now), now);
+    }
+
+    Issued rotate(RefreshTokenFamily family, Instant now) {
+        String nextSecret = randomToken(SECRET_BYTES);
+        var rotated = family.rotate(hash(nextSecret));
+        return new Issued(family.familyId() + "." + nextSecret, rotated, ttlSeconds(rotated, now), now);
+    }
+
+    TokenRefreshResponse respond(Issued rotated) {
+        var family = rotated.family();
+        var principal = UserPrincipal.fromJwt(
+                family.userId(),
+                family.email(),
+                IdentityProvider.valueOf(family.identityProvider()),
+                family.roles().stream().map(AuthoritySets::authority).toList()
+        );
+
+        return new TokenRefreshResponse(jwtService.generateAccessToken(principal), rotated.token(), rotated.issuedAt());
+    }
+
+    static boolean isCurrent(RefreshTokenFamily family, String secret) {
+        return MessageDigest.isEqual(
+                family.currentTokenHash().getBytes(StandardCharsets.US_ASCII),
+                hash(secret).getBytes(StandardCharsets.US_ASCII)
+        );
+    }
+
+    static BusinessException reused(RefreshTokenFamily family) {
+        log.warn("Refresh token reuse detected, family revoked family={} user={}", family.familyId(), family.userId());
+        return new BusinessException(AuthErrorCode.REFRESH_TOKEN_REUSED);
+    }
+
+    static ParsedToken parse(String refreshToken) {
+        int dot = refreshToken.indexOf('.');
+        if (dot <= 0 || dot == refreshToken.length() - 1 || refreshToken.indexOf('.', dot + 1) >= 0) {
+            throw new BusinessException(AuthErrorCode.INVALID_REFRESH_TOKEN);
+        }
+        return new ParsedToken(refreshToken.substring(0, dot), refreshToken.substring(dot + 1));
+    }
+
+    private long ttlSeconds(RefreshTokenFamily family, Instant now) {
+        var remaining = Duration.between(now, family.expiresAt());
+        long ttlSeconds = Math.min(idleTTL.toSeconds(), remaining.toSeconds());
+        if (ttlSeconds <= 0) {
+            throw new BusinessException(AuthErrorCode.INVALID_REFRESH_TOKEN);
+        }
+        return ttlSeconds;
+    }
+
+    private String randomToken(int bytes) {
+        byte[] buffer = new byte[bytes];
+        secureRandom.nextBytes(buffer);
+        return ENCODER.encodeToString(buffer);
+    }
+
+    private static String hash(String secret) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.US_ASCII));
+            return ENCODER.encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    record ParsedToken(String familyId, String secret) {
+    }
+
+    record Issued(String token, RefreshTokenFamily family, long ttlSeconds, Instant issuedAt) {
+    }
+}
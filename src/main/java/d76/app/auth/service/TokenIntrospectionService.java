@@ -0,0 +1,121 @@
+package d76.app.auth.service;
+
+import d76.app.auth.dto.IntrospectionResponse;
+import d76.app.auth.exception.AuthErrorCode;
+import d76.app.core.exception.BusinessException;
+import d76.app.core.metrics.MetricsSource;
+import d76.app.security.jwt.JwtService;
+import d76.app.security.jwt.VerifiedTokenCache;
+import d76.app.security.revocation.RevokedTokenRegistry;
+import d76.app.user.service.RoleCatalog;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Token introspection (RFC 7662) for gateways and internal services holding the {@code INTROSPECTION} role.
+ * Only access tokens can be active; action tokens (password reset, re-authentication, provider linking) are
+ * reported inactive, since they are meant for this service's own flows.
+ * <p>
+ * Tokens are verified with {@link JwtService#extractClaims}, so every signing algorithm in the key ring is accepted.
+ * Active results are cached by token digest until the token expires; the revocation check runs on every call,
+ * so a revoked token turns inactive immediately, cached or not. Failures are never cached.
+ */
+@Slf4j
+@Service
+public class TokenIntrospectionService implements MetricsSource {
+
+    private final JwtService jwtService;
+    private final RevokedTokenRegistry revokedTokens;
+    private final RoleCatalog roleCatalog;
+    private final VerifiedTokenCache<IntrospectionResponse> cache;
+
+    public TokenIntrospectionService(
+            JwtService jwtService,
+            RevokedTokenRegistry revokedTokens,
+            RoleCatalog roleCatalog,
+            @Value("${jwt.introspection.cacheMaxSize:10000}") int cacheMaxSize
+    ) {
+        this.jwtService = jwtService;
+        this.revokedTokens = revokedTokens;
+        this.roleCatalog = roleCatalog;
+        this.cache = new VerifiedTokenCache<>(cacheMaxSize);
+    }
+
+    public IntrospectionResponse introspect(String token) {
+        IntrospectionResponse response;
+        try {
+            response = cache.get(token, this::verify, r -> r.exp() * 1000);
+        } catch (BusinessException e) {
+            return IntrospectionResponse.INACTIVE;
+        }
+
+        if (response.jti() != null && revokedTokens.isRevoked(response.jti())) {
+            return IntrospectionResponse.INACTIVE;
+        }
+        return response;
+    }
+
+    public List<IntrospectionResponse> introspectAll(List<String> tokens) {
+        List<IntrospectionResponse> results = new ArrayList<>(tokens.size());
+        for (var token : tokens) {
+            results.add(introspect(token));
+        }
+        return results;
+    }
+
+    private IntrospectionResponse verify(String token) {
+        Claims claims = jwtService.extractClaims(token);
+
+        if (claims.get("purpose") != null) {
+            throw new BusinessException(AuthErrorCode.INVALID_TOKEN);
+        }
+        return IntrospectionResponse.builder()
+                .active(true)
+                .tokenType("access_token")
+                .sub(claims.getSubject())
+                .email(claims.get("email", String.class))
+                .identityProvider(claims.get("identityProvider", String.class))
+                .roles(roles(claims))
+                .jti(claims.getId())
+                .iat(claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() / 1000 : null)
+                .exp(claims.getExpiration().getTime() / 1000)
+                .build();
+    }
+
+    private List<String> roles(Claims claims) {
+        if (claims.get("rm") instanceof Number roleMask) {
+            Integer version = claims.get("rv", Integer.class);
+            var authorities = version == null ? null : roleCatalog.decode(roleMask.longValue(), version);
+            if (authorities == null) {
+                log.debug("Introspected token has an unknown role catalog version={}", version);
+                throw new BusinessException(AuthErrorCode.INVALID_TOKEN);
+            }
+            return authorities.stream().map(GrantedAuthority::getAuthority).toList();
+        }
+
+        List<String> roles = new ArrayList<>();
+        if (claims.get("roles") instanceof List<?> rawList) {
+            for (Object role : rawList) {
+                if (role instanceof String name) roles.add(name);
+            }
+        }
+        return roles;
+    }
+
+    @Override
+    public String metricsName() {
+        return "jwt.introspectionCache";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        return cache.stats();
+    }
+}
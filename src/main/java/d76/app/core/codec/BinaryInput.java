@@ -0,0 +1,89 @@
+package d76.app.core.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads what {@link BinaryOutput} wrote. Truncated or malformed input fails with {@link IllegalArgumentException}.
+ */
+public final class BinaryInput {
+
+    private final byte[] bytes;
+    private int position;
+
+    public BinaryInput(byte[] bytes, int offset) {
+        this.bytes = bytes;
+        this.position = offset;
+    }
+
+    public int readByte() {
+        if (position >= bytes.length) throw new IllegalArgumentException("Unexpected end of encoded value");
+        return bytes[position++] & 0xFF;
+    }
+
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    public int readVarInt() {
+        return Math.toIntExact(readVarLong());
+    }
+
+    public String readString() {
+        long length = readVarLong() - 1;
+        if (length < 0) return null;
+        if (length > bytes.length - position) throw new IllegalArgumentException("Unexpected end of encoded value");
+
+        var value = new String(bytes, position, (int) length, StandardCharsets.UTF_8);
+        position += (int) length;
+        return value;
+    }
+
+    public Long readNullableLong() {
+        return readBoolean() ? readVarLong() : null;
+    }
+
+    public Instant readInstant() {
+        if (!readBoolean()) return null;
+        return Instant.ofEpochSecond(readVarLong(), readVarLong());
+    }
+
+    public List<String> readStrings() {
+        int count = readVarInt();
+        List<String> values = new ArrayList<>(Math.min(count, 64));
+        for (int i = 0; i < count; i++) values.add(readString());
+        return Collections.unmodifiableList(values);
+    }
+
+    public byte[] readBytes(int length) {
+        if (length < 0 || length > bytes.length - position) throw new IllegalArgumentException("Unexpected end of encoded value");
+
+        var value = new byte[length];
+        System.arraycopy(bytes, position, value, 0, length);
+        position += length;
+        return value;
+    }
+
+    /**
+     * Unread remainder, for formats that end with an opaque payload.
+     */
+    public byte[] remaining() {
+        var rest = new byte[bytes.length - position];
+        System.arraycopy(bytes, position, rest, 0, rest.length);
+        position = bytes.length;
+        return rest;
+    }
+}
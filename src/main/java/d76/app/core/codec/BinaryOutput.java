@@ -0,0 +1,85 @@
+package d76.app.core.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Growable byte buffer with the primitives codecs are built from. Integers are unsigned LEB128 varints, so small
+ * values take one byte; nullable values carry their null-ness in the length or a flag byte.
+ */
+public final class BinaryOutput {
+
+    private byte[] buffer;
+    private int size;
+
+    public BinaryOutput(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+    }
+
+    public void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    public void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    /**
+     * Nullable string: UTF-8 length plus one, then the bytes; a single 0 for null.
+     */
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length + 1L);
+        writeBytes(bytes);
+    }
+
+    public void writeNullableLong(Long value) {
+        writeBoolean(value != null);
+        if (value != null) writeVarLong(value);
+    }
+
+    public void writeInstant(Instant value) {
+        writeBoolean(value != null);
+        if (value == null) return;
+
+        writeVarLong(value.getEpochSecond());
+        writeVarLong(value.getNano());
+    }
+
+    public void writeStrings(Collection<String> values) {
+        writeVarLong(values.size());
+        for (var value : values) writeString(value);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
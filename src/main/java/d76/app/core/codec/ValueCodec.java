@@ -0,0 +1,28 @@
+package d76.app.core.codec;
+
+/**
+ * Compact binary form of one value type stored in Redis. Codecs are picked up as beans by the
+ * {@link ValueCodecRegistry}; types without one are stored as JSON.
+ */
+public interface ValueCodec<T> {
+
+    /**
+     * Written in front of every encoded value. Unique across codecs and never reused for another type,
+     * since values written under it may still be in Redis.
+     */
+    int tag();
+
+    Class<T> type();
+
+    /**
+     * Version of the layout {@link #write} produces. {@link #read} receives the version a value was written
+     * with, so a codec can keep reading the previous layout for as long as such values can live.
+     */
+    default int version() {
+        return 1;
+    }
+
+    void write(T value, BinaryOutput out);
+
+    T read(BinaryInput in, int version);
+}
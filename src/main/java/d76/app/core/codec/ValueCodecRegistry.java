@@ -0,0 +1,154 @@
+package d76.app.core.codec;
+
+import d76.app.core.metrics.MetricsSource;
+import org.springframework.data.redis.serializer.GenericJacksonJsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Value serializer of both Redis templates, dispatching on the {@link ValueCodec} beans.
+ * <p>
+ * The first byte of a value names its format: {@code 1} is a codec's binary form, followed by the codec tag and the
+ * layout version; {@code 2} is JSON for types without a codec, preceded by the class name so it reads back as the
+ * same type. Values written before this format existed are JSON and still read through the previous serializer.
+ * Types that fall back to JSON are listed under {@code redis.codec} in the metrics, as candidates for a codec.
+ */
+@Component
+public class ValueCodecRegistry implements RedisSerializer<Object>, MetricsSource {
+
+    private static final int FORMAT_BINARY = 1;
+    private static final int FORMAT_JSON = 2;
+
+    // JSON values name their own class, so only application and JDK value types may be instantiated from them
+    private static final List<String> JSON_TYPE_PREFIXES = List.of("d76.app.", "java.lang.");
+
+    private final Map<Class<?>, ValueCodec<?>> byType = new HashMap<>();
+    private final Map<Integer, ValueCodec<?>> byTag = new HashMap<>();
+    private final ObjectMapper objectMapper;
+    private final GenericJacksonJsonRedisSerializer legacy;
+
+    private final LongAdder binaryWrites = new LongAdder();
+    private final LongAdder jsonWrites = new LongAdder();
+    private final LongAdder legacyReads = new LongAdder();
+    private final Set<String> jsonTypes = ConcurrentHashMap.newKeySet();
+
+    public ValueCodecRegistry(List<ValueCodec<?>> codecs, ObjectMapper objectMapper) {
+        for (var codec : codecs) {
+            var sameTag = byTag.putIfAbsent(codec.tag(), codec);
+            if (sameTag != null) {
+                throw new IllegalStateException("Codec tag " + codec.tag() + " is used by both "
+                        + sameTag.type().getName() + " and " + codec.type().getName());
+            }
+            if (byType.putIfAbsent(codec.type(), codec) != null) {
+                throw new IllegalStateException("More than one codec for " + codec.type().getName());
+            }
+        }
+        this.objectMapper = objectMapper;
+        this.legacy = new GenericJacksonJsonRedisSerializer(objectMapper);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) return new byte[0];
+
+        var codec = byType.get(value.getClass());
+        if (codec != null) {
+            binaryWrites.increment();
+            return writeBinary(codec, value);
+        }
+
+        jsonWrites.increment();
+        jsonTypes.add(value.getClass().getName());
+        try {
+            var out = new BinaryOutput(128);
+            out.writeByte(FORMAT_JSON);
+            out.writeString(value.getClass().getName());
+            out.writeBytes(objectMapper.writeValueAsBytes(value));
+            return out.toByteArray();
+        } catch (RuntimeException e) {
+            throw new SerializationException("Could not write " + value.getClass().getName() + " as JSON", e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) return null;
+
+        try {
+            return switch (bytes[0]) {
+                case FORMAT_BINARY -> readBinary(bytes);
+                case FORMAT_JSON -> readJson(bytes);
+                default -> {
+                    legacyReads.increment();
+                    yield legacy.deserialize(bytes);
+                }
+            };
+        } catch (IllegalArgumentException | ClassNotFoundException e) {
+            throw new SerializationException("Could not read cached value: " + e.getMessage(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> byte[] writeBinary(ValueCodec<T> codec, Object value) {
+        var out = new BinaryOutput(64);
+        out.writeByte(FORMAT_BINARY);
+        out.writeVarLong(codec.tag());
+        out.writeVarLong(codec.version());
+        codec.write((T) value, out);
+        return out.toByteArray();
+    }
+
+    private Object readBinary(byte[] bytes) {
+        var in = new BinaryInput(bytes, 1);
+        int tag = in.readVarInt();
+        int version = in.readVarInt();
+
+        var codec = byTag.get(tag);
+        if (codec == null) throw new IllegalArgumentException("No codec for tag " + tag);
+        if (version > codec.version()) {
+            // written by a newer node during a rolling deploy
+            throw new IllegalArgumentException("Version " + version + " of tag " + tag + " is newer than this node's");
+        }
+        return codec.read(in, version);
+    }
+
+    private Object readJson(byte[] bytes) throws ClassNotFoundException {
+        var in = new BinaryInput(bytes, 1);
+        var typeName = in.readString();
+        if (typeName == null || JSON_TYPE_PREFIXES.stream().noneMatch(typeName::startsWith)) {
+            throw new IllegalArgumentException("Type not allowed: " + typeName);
+        }
+
+        var type = Class.forName(typeName, false, getClass().getClassLoader());
+        var json = in.remaining();
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Could not read " + typeName + " from JSON", e);
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "redis.codec";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> codecs = new TreeMap<>();
+        byTag.forEach((tag, codec) -> codecs.put(codec.type().getName(), Map.of("tag", tag, "version", codec.version())));
+        return Map.of(
+                "codecs", codecs,
+                "binaryWrites", binaryWrites.sum(),
+                "jsonWrites", jsonWrites.sum(),
+                "jsonTypes", new TreeSet<>(jsonTypes),
+                "legacyReads", legacyReads.sum()
+        );
+    }
+}
@@ -0,0 +1,45 @@
+package d76.app.core.concurrent;
+
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+
+/**
+ * Carries the caller's {@code SecurityContext} and MDC into tasks run by the application executor
+ * ({@code @Async}), on platform and virtual threads alike. The worker's previous state is restored
+ * afterwards, so a pooled thread never leaks one task's identity into the next.
+ */
+public class ContextPropagatingTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        // a fresh context per task, the caller may change its own context while the task runs
+        var securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(SecurityContextHolder.getContext().getAuthentication());
+        var mdc = MDC.getCopyOfContextMap();
+
+        return () -> {
+            var previousSecurityContext = SecurityContextHolder.getContext();
+            var previousMdc = MDC.getCopyOfContextMap();
+
+            SecurityContextHolder.setContext(securityContext);
+            setMdc(mdc);
+            try {
+                runnable.run();
+            } finally {
+                SecurityContextHolder.setContext(previousSecurityContext);
+                setMdc(previousMdc);
+            }
+        };
+    }
+
+    private static void setMdc(Map<String, String> context) {
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+}
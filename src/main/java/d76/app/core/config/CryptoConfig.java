@@ -1,14 +1,38 @@
 package d76.app.core.config;
 
+import d76.app.security.crypto.BoundedPasswordEncoder;
+import d76.app.security.crypto.CalibratedPasswordEncoders;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
 
 @Configuration
 public class CryptoConfig {
     @Bean
-    PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+    BoundedPasswordEncoder passwordEncoder(
+            @Value("${app.crypto.maxConcurrentHashes:0}") int maxConcurrentHashes,
+            @Value("${app.crypto.hashQueueCapacity:0}") int hashQueueCapacity,
+            @Value("${app.crypto.algorithm:bcrypt}") String algorithm,
+            @Value("${app.crypto.targetHashMillis:100}") long targetHashMillis,
+            @Value("${app.crypto.bcrypt.cost:0}") int bcryptCost,
+            @Value("${app.crypto.argon2.memoryKiB:19456}") int argon2MemoryKiB,
+            @Value("${app.crypto.argon2.iterations:0}") int argon2Iterations
+    ){
+        // default: one hash per core, leaving request threads free for cheap token-verified traffic
+        int threads = maxConcurrentHashes > 0 ? maxConcurrentHashes : Runtime.getRuntime().availableProcessors();
+        // default: about a second and a half of bcrypt work per thread before callers are turned away
+        int queueCapacity = hashQueueCapacity > 0 ? hashQueueCapacity : threads * 16;
+
+        // a cost or iteration count of 0 means calibrate against targetHashMillis at startup
+        var encoder = CalibratedPasswordEncoders.create(
+                algorithm,
+                Duration.ofMillis(targetHashMillis),
+                bcryptCost,
+                argon2MemoryKiB,
+                argon2Iterations
+        );
+        return new BoundedPasswordEncoder(encoder, threads, queueCapacity);
     }
 }
@@ -0,0 +1,19 @@
+package d76.app.core.config;
+
+import d76.app.core.concurrent.ContextPropagatingTaskDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * The application task executor ({@code @Async}) is auto-configured: a thread pool by default, or a virtual
+ * thread per task with {@code spring.threads.virtual.enabled=true}. Either way it applies this decorator.
+ */
+@Configuration
+public class ExecutionConfig {
+
+    @Bean
+    TaskDecorator contextPropagatingTaskDecorator() {
+        return new ContextPropagatingTaskDecorator();
+    }
+}
@@ -0,0 +1,24 @@
+package d76.app.core.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JpaConfig {
+
+    /**
+     * JDBC batching for inserts and updates; explicit spring.jpa.properties values take precedence.
+     * On Postgres, {@code reWriteBatchedInserts=true} on the JDBC URL turns each batch into one multi-row insert.
+     */
+    @Bean
+    HibernatePropertiesCustomizer jdbcBatching(@Value("${app.jpa.batchSize:50}") int batchSize) {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+        };
+    }
+}
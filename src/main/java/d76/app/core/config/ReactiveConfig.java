@@ -0,0 +1,62 @@
+package d76.app.core.config;
+
+import d76.app.core.codec.ValueCodecRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.reactive.config.BlockingExecutionConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * Reactive deployment mode ({@code spring.main.web-application-type=reactive}).
+ * <p>
+ * Token verification runs on the event loop and moves to the bounded elastic scheduler only for a key-ring refresh
+ * or a role-catalog reload; logout revocation always does, since it writes to the store. Controllers that still
+ * return plain values (JPA, mail, OTPs and other blocking Redis calls) are invoked on a bounded pool instead, so
+ * they never stall the event loop.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig implements WebFluxConfigurer, DisposableBean {
+
+    // not a bean: it would otherwise replace the application task executor used by @Async
+    private final ThreadPoolTaskExecutor blockingExecutor = new ThreadPoolTaskExecutor();
+
+    ReactiveConfig(@Value("${app.reactive.blockingThreads:64}") int blockingThreads) {
+        blockingExecutor.setThreadNamePrefix("blocking-");
+        blockingExecutor.setCorePoolSize(blockingThreads);
+        blockingExecutor.setMaxPoolSize(blockingThreads);
+        blockingExecutor.setQueueCapacity(blockingThreads * 16);
+        blockingExecutor.initialize();
+    }
+
+    @Override
+    public void configureBlockingExecution(BlockingExecutionConfigurer configurer) {
+        configurer.setExecutor(blockingExecutor);
+    }
+
+    @Override
+    public void destroy() {
+        blockingExecutor.shutdown();
+    }
+
+    @Bean
+    public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(
+            ReactiveRedisConnectionFactory factory,
+            ValueCodecRegistry valueCodecRegistry
+    ) {
+        // same value format as RedisConfig, so both modes read each other's entries
+        var context = RedisSerializationContext.<String, Object>newSerializationContext(new StringRedisSerializer())
+                .value(valueCodecRegistry)
+                .build();
+
+        return new ReactiveRedisTemplate<>(factory, context);
+    }
+}
@@ -1,42 +1,45 @@
 package d76.app.core.config;
 
+import d76.app.core.codec.ValueCodecRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.GenericJacksonJsonRedisSerializer;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
-import tools.jackson.databind.ObjectMapper;
 
 @Configuration
 @RequiredArgsConstructor
 public class RedisConfig {
 
-
-    private final ObjectMapper objectMapper;
+    private final ValueCodecRegistry valueCodecRegistry;
 
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory factory) {
-        // 1. Set up the serializer to handle "Object" automatically
-        // GenericJacksonJsonRedisSerializer is the "easy" choice because
-        // it handl es type info internally without needing a custom ObjectMapper setup.
-        GenericJacksonJsonRedisSerializer serializer = new GenericJacksonJsonRedisSerializer(objectMapper);
-
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(factory);
 
-        // 2. The Keys are always Strings
+        // 1. The Keys are always Strings
         template.setKeySerializer(new StringRedisSerializer());
 
-        // 3. The Values use the JSON serializer
-        template.setValueSerializer(serializer);
+        // 2. The Values are written by their registered binary codec, or as JSON tagged with their type
+        template.setValueSerializer(valueCodecRegistry);
 
-        // 4. Do the same for Hash structures
+        // 3. Do the same for Hash structures
         template.setHashKeySerializer(new StringRedisSerializer());
-        template.setHashValueSerializer(serializer);
+        template.setHashValueSerializer(valueCodecRegistry);
 
         template.afterPropertiesSet();
         return template;
     }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.cache.type", havingValue = "redis", matchIfMissing = true)
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory factory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        return container;
+    }
 }
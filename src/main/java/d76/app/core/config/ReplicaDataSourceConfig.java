@@ -0,0 +1,73 @@
+package d76.app.core.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import d76.app.core.datasource.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to Postgres replicas when {@code app.datasource.replicas.urls} is set.
+ * <p>
+ * The lazy proxy only fetches a physical connection at the first statement, once the transaction has marked it
+ * read-only; read-only connections come from the {@link ReplicaRoutingDataSource}, all others from the primary.
+ */
+@Configuration
+@ConditionalOnProperty("app.datasource.replicas.urls")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            @Value("${app.datasource.replicas.urls}") String[] urls,
+            @Value("${app.datasource.replicas.username:}") String username,
+            @Value("${app.datasource.replicas.password:}") String password,
+            @Value("${app.datasource.replicas.maxPoolSize:10}") int maxPoolSize,
+            @Value("${app.datasource.replicas.connectionTimeoutMillis:2000}") long connectionTimeoutMillis,
+            @Value("${app.datasource.replicas.maxLagMillis:1000}") long maxLagMillis,
+            @Value("${app.datasource.replicas.checkTimeoutSeconds:2}") int checkTimeoutSeconds
+    ) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (url.isBlank()) continue;
+
+            var config = new HikariConfig();
+            config.setPoolName("replica-" + replicas.size());
+            config.setJdbcUrl(url.trim());
+            config.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            config.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            config.setMaximumPoolSize(maxPoolSize);
+            config.setConnectionTimeout(connectionTimeoutMillis);
+            config.setReadOnly(true);
+            // an unreachable replica stays out of rotation instead of failing startup
+            config.setInitializationFailTimeout(-1);
+            replicas.put(config.getPoolName(), new HikariDataSource(config));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLagMillis, checkTimeoutSeconds);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+        var proxy = new LazyConnectionDataSourceProxy(primaryDataSource);
+        proxy.setReadOnlyDataSource(replicaRoutingDataSource);
+        return proxy;
+    }
+}
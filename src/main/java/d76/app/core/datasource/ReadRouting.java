@@ -0,0 +1,29 @@
+package d76.app.core.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread override of read routing, for reads that must see this node's or another node's latest writes.
+ * Only connections acquired while the supplier runs are affected; it has no effect without configured replicas.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = ThreadLocal.withInitial(() -> false);
+
+    private ReadRouting() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean previous = PRIMARY_FORCED.get();
+        PRIMARY_FORCED.set(true);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY_FORCED.set(previous);
+        }
+    }
+
+    static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get();
+    }
+}
@@ -0,0 +1,160 @@
+package d76.app.core.datasource;
+
+import d76.app.core.metrics.MetricsSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-only side of the JDBC routing: hands out connections to a healthy, caught-up replica, or to the primary
+ * when none qualifies or the caller asked for it through {@link ReadRouting}.
+ * <p>
+ * Replicas are probed every {@code app.datasource.replicas.checkMillis}; one takes reads while the probe succeeds
+ * and its replay lag stays within {@code maxLagMillis}. A replica gets no reads before its first successful probe.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements MetricsSource, AutoCloseable {
+
+    private static final String PRIMARY = "primary";
+
+    // zero while the replica has replayed everything it received, so a quiet primary does not read as lag
+    private static final String LAG_QUERY = """
+            select case
+                       when not pg_is_in_recovery() or pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                       else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   end""";
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMillis;
+    private final int checkTimeoutSeconds;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile Replica[] healthy = new Replica[0];
+
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryFallbacks = new LongAdder();
+    private final LongAdder forcedPrimaryReads = new LongAdder();
+
+    public ReplicaRoutingDataSource(
+            DataSource primary,
+            Map<String, DataSource> replicas,
+            long maxLagMillis,
+            int checkTimeoutSeconds
+    ) {
+        this.maxLagMillis = maxLagMillis;
+        this.checkTimeoutSeconds = checkTimeoutSeconds;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach((name, dataSource) -> {
+            this.replicas.add(new Replica(name, dataSource));
+            targets.put(name, dataSource);
+        });
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (ReadRouting.isPrimaryForced()) {
+            forcedPrimaryReads.increment();
+            return PRIMARY;
+        }
+
+        var candidates = healthy;
+        if (candidates.length == 0) {
+            primaryFallbacks.increment();
+            return PRIMARY;
+        }
+
+        replicaReads.increment();
+        return candidates[Math.floorMod(next.getAndIncrement(), candidates.length)].name;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.checkMillis:5000}")
+    void checkReplicas() {
+        List<Replica> usable = new ArrayList<>(replicas.size());
+
+        for (var replica : replicas) {
+            boolean wasHealthy = replica.healthy;
+            try (var connection = replica.dataSource.getConnection();
+                 var statement = connection.createStatement()) {
+                statement.setQueryTimeout(checkTimeoutSeconds);
+                try (var result = statement.executeQuery(LAG_QUERY)) {
+                    result.next();
+                    replica.lagMillis = Math.max(0, (long) result.getDouble(1));
+                }
+                replica.healthy = replica.lagMillis <= maxLagMillis;
+                replica.lastError = replica.healthy ? null : "lagging " + replica.lagMillis + "ms";
+            } catch (SQLException | RuntimeException e) {
+                replica.healthy = false;
+                replica.lastError = e.getMessage();
+            }
+
+            if (replica.healthy) usable.add(replica);
+            if (wasHealthy != replica.healthy) {
+                if (replica.healthy) log.info("Replica {} is taking reads again", replica.name);
+                else log.warn("Replica {} taken out of read rotation: {}", replica.name, replica.lastError);
+            }
+        }
+
+        healthy = usable.toArray(Replica[]::new);
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (var replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) closeable.close();
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "datasource.replicas";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> perReplica = new LinkedHashMap<>();
+        for (var replica : replicas) {
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("healthy", replica.healthy);
+            state.put("lagMillis", replica.lagMillis);
+            if (replica.lastError != null) state.put("lastError", replica.lastError);
+            perReplica.put(replica.name, state);
+        }
+        return Map.of(
+                "replicas", perReplica,
+                "healthyReplicas", healthy.length,
+                "replicaReads", replicaReads.sum(),
+                "primaryFallbacks", primaryFallbacks.sum(),
+                "forcedPrimaryReads", forcedPrimaryReads.sum()
+        );
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile long lagMillis;
+        private volatile String lastError;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package d76.app.core.event;
+
+import java.util.function.Consumer;
+
+/**
+ * Fire-and-forget messages between application nodes. Delivery is best effort:
+ * anything that must survive a missed message also needs a durable copy to resync from.
+ */
+public interface ClusterEventBus {
+
+    void publish(String channel, String message);
+
+    /**
+     * Registers a listener for messages on {@code channel}, including the ones published by this node.
+     */
+    void subscribe(String channel, Consumer<String> listener);
+}
@@ -0,0 +1,38 @@
+package d76.app.core.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Event bus of a single node ({@code app.cache.type=local}): messages go straight to this node's listeners.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.cache.type", havingValue = "local")
+public class LocalClusterEventBus implements ClusterEventBus {
+
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(String channel, String message) {
+        for (var listener : listeners.getOrDefault(channel, List.of())) {
+            try {
+                listener.accept(message);
+            } catch (RuntimeException e) {
+                log.warn("Cluster event listener failed channel={}: {}", channel, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        listeners.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+}
@@ -0,0 +1,38 @@
+package d76.app.core.event;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.cache.type", havingValue = "redis", matchIfMissing = true)
+@RequiredArgsConstructor
+public class RedisClusterEventBus implements ClusterEventBus {
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @Override
+    public void publish(String channel, String message) {
+        redisTemplate.convertAndSend(channel, message);
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                listener.accept(new String(message.getBody(), StandardCharsets.UTF_8));
+            } catch (RuntimeException e) {
+                log.warn("Cluster event listener failed channel={}: {}", channel, e.getMessage());
+            }
+        }, new ChannelTopic(channel));
+    }
+}
@@ -35,13 +35,17 @@ public class ApiErrorResponse {
     }
 
     public static ApiErrorResponse constructErrorResponse(ErrorCode code, String message, HttpServletRequest request) {
+        return constructErrorResponse(code, message, request.getRequestURI());
+    }
+
+    public static ApiErrorResponse constructErrorResponse(ErrorCode code, String message, String path) {
         return ApiErrorResponse
                 .builder()
                 .timestamp(Instant.now())
                 .errorCode(code.getCode())
                 .statusCode(code.getStatus().value())
                 .message(message)
-                .path(request.getRequestURI())
+                .path(path)
                 .build();
     }
 
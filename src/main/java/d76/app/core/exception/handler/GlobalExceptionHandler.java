@@ -1,10 +1,14 @@
 package d76.app.core.exception.handler;
 
+import d76.app.auth.exception.AuthErrorCode;
 import d76.app.core.exception.ApiErrorResponse;
 import d76.app.core.exception.BusinessException;
 import d76.app.core.exception.ErrorCode;
+import d76.app.security.crypto.HashingCapacityExceededException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.jspecify.annotations.NullMarked;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -18,6 +22,7 @@ import java.util.stream.Collectors;
 
 @NullMarked
 @RestControllerAdvice(annotations = RestController.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public final class GlobalExceptionHandler {
 
     @ExceptionHandler(BusinessException.class)
@@ -29,6 +34,16 @@ public final class GlobalExceptionHandler {
         return ResponseEntity.status(errorCode.getStatus()).body(response);
     }
 
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    ResponseEntity<ApiErrorResponse> handleHashingCapacityExceededException(HttpServletRequest request) {
+
+        var errorCode = AuthErrorCode.AUTHENTICATION_BUSY;
+        var response = ApiErrorResponse.constructErrorResponse(errorCode, request);
+        return ResponseEntity.status(errorCode.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(HashingCapacityExceededException.RETRY_AFTER_SECONDS))
+                .body(response);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     ResponseEntity<ApiErrorResponse> handleMethodArgumentNotValidException(
             MethodArgumentNotValidException ex, HttpServletRequest request
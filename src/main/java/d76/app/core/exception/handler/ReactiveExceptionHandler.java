@@ -0,0 +1,90 @@
+package d76.app.core.exception.handler;
+
+import d76.app.auth.exception.AuthErrorCode;
+import d76.app.core.exception.ApiErrorResponse;
+import d76.app.core.exception.BusinessException;
+import d76.app.core.exception.ErrorCode;
+import d76.app.security.crypto.HashingCapacityExceededException;
+import org.jspecify.annotations.NullMarked;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authorization.AuthorizationDeniedException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * {@link GlobalExceptionHandler} and {@code MethodSecurityExceptionHandler} for the reactive mode,
+ * producing the same {@link ApiErrorResponse} bodies.
+ */
+@NullMarked
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public final class ReactiveExceptionHandler {
+
+    @ExceptionHandler(BusinessException.class)
+    ResponseEntity<ApiErrorResponse> handleBusinessException(BusinessException ex, ServerWebExchange exchange) {
+        ErrorCode errorCode = ex.getErrorCode();
+        var response = ApiErrorResponse.constructErrorResponse(errorCode, ex.getMessage(), path(exchange));
+        return ResponseEntity.status(errorCode.getStatus()).body(response);
+    }
+
+    @ExceptionHandler(AuthorizationDeniedException.class)
+    ResponseEntity<ApiErrorResponse> handleAuthorizationDeniedException(ServerWebExchange exchange) {
+        var errorCode = AuthErrorCode.ACCESS_DENIED;
+        var response = ApiErrorResponse.constructErrorResponse(errorCode, errorCode.defaultMessage(), path(exchange));
+        return ResponseEntity.status(errorCode.getStatus()).body(response);
+    }
+
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    ResponseEntity<ApiErrorResponse> handleHashingCapacityExceededException(ServerWebExchange exchange) {
+        var errorCode = AuthErrorCode.AUTHENTICATION_BUSY;
+        var response = ApiErrorResponse.constructErrorResponse(errorCode, errorCode.defaultMessage(), path(exchange));
+        return ResponseEntity.status(errorCode.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(HashingCapacityExceededException.RETRY_AFTER_SECONDS))
+                .body(response);
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    ResponseEntity<ApiErrorResponse> handleBindException(WebExchangeBindException ex, ServerWebExchange exchange) {
+        List<ApiErrorResponse.ApiFieldError> fieldErrors = ex.getFieldErrors()
+                .stream()
+                .map(fieldError -> new ApiErrorResponse.ApiFieldError(fieldError.getField(), fieldError.getDefaultMessage()))
+                .toList();
+
+        ApiErrorResponse response = ApiErrorResponse
+                .builder()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .errorCode("VALIDATION_ERROR")
+                .message("Validation Failed")
+                .path(path(exchange))
+                .errors(fieldErrors)
+                .timestamp(Instant.now())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    @ExceptionHandler(Exception.class)
+    ResponseEntity<ApiErrorResponse> handleException(ServerWebExchange exchange) {
+        ApiErrorResponse response = ApiErrorResponse
+                .builder()
+                .timestamp(Instant.now())
+                .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                .errorCode("INTERNAL_ERROR")
+                .message("Unexpected error occurred")
+                .path(path(exchange))
+                .build();
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+    }
+
+    private static String path(ServerWebExchange exchange) {
+        return exchange.getRequest().getPath().value();
+    }
+}
@@ -0,0 +1,14 @@
+package d76.app.core.metrics;
+
+import java.util.Map;
+
+/**
+ * Implemented by components that want their runtime counters listed under
+ * {@code GET /api/admin/metrics}.
+ */
+public interface MetricsSource {
+
+    String metricsName();
+
+    Map<String, Object> metrics();
+}
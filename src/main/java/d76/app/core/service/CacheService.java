@@ -1,7 +1,11 @@
 package d76.app.core.service;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public interface CacheService {
 
@@ -10,4 +14,53 @@ public interface CacheService {
     <T> Optional<T> get(String key, Class<T> type);
 
     void evict(String key);
+
+    /**
+     * Values of the keys that are present and of {@code type}, in one round trip.
+     */
+    <T> Map<String, T> multiGet(Collection<String> keys, Class<T> type);
+
+    /**
+     * Writes all entries with the same ttl in one round trip.
+     */
+    <T> void putAll(Map<String, T> values, long ttl, TimeUnit timeUnit);
+
+    /**
+     * Removes the key and returns its value, atomically: of two concurrent callers only one gets the value.
+     */
+    <T> Optional<T> getAndDelete(String key, Class<T> type);
+
+    /**
+     * Stores the value only if the key is absent; true if it was stored.
+     */
+    <T> boolean putIfAbsent(String key, T value, long ttl, TimeUnit timeUnit);
+
+    /**
+     * Compare-and-set: stores {@code replacement} only if the key still holds a value equal to {@code expected},
+     * typically one just read with {@link #get}. False if the key is gone or was changed in between.
+     */
+    <T> boolean replace(String key, T expected, T replacement, long ttl, TimeUnit timeUnit);
+
+    /**
+     * Adds {@code delta} to a counter and returns the new value. The ttl is set when the increment creates
+     * the counter, so it counts from the first increment of a window.
+     */
+    long increment(String key, long delta, long ttl, TimeUnit timeUnit);
+
+    /**
+     * Queues the operations and sends them in one round trip. The results of the queued reads and increments
+     * are returned in order; gets of absent keys yield null.
+     */
+    List<Object> pipeline(Consumer<Batch> operations);
+
+    interface Batch {
+
+        <T> void put(String key, T value, long ttl, TimeUnit timeUnit);
+
+        void get(String key);
+
+        void evict(String key);
+
+        void increment(String key, long delta, long ttl, TimeUnit timeUnit);
+    }
 }
@@ -0,0 +1,409 @@
+package d76.app.core.service;
+
+import d76.app.core.codec.BinaryInput;
+import d76.app.core.codec.BinaryOutput;
+import d76.app.core.codec.ValueCodecRegistry;
+import d76.app.core.metrics.MetricsSource;
+import d76.app.core.util.TimingWheel;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-process {@link CacheService} for single-node deployments, selected with {@code app.cache.type=local}.
+ * <p>
+ * Entries live in a concurrent map; a {@link TimingWheel} with one-second ticks removes them once their ttl
+ * passes, and reads never return an expired entry in between. Each entry holds its own timer, which is cancelled
+ * when the entry is evicted or overwritten, so the wheel never holds more timers than the map holds entries. At {@code app.cache.local.maxEntries} the entry
+ * closest to expiry is evicted to make room. With {@code app.cache.local.snapshotFile} set, live entries are
+ * written there on shutdown, encoded by the {@link ValueCodecRegistry}, and loaded again on startup. The file is
+ * readable by its owner only, as it holds password hashes; keys under
+ * {@code app.cache.local.snapshotExcludedPrefixes} (OTP codes, pending registrations with their plaintext password)
+ * are never written.
+ * <p>
+ * Values are stored by reference and must be immutable, as every cached type is.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.cache.type", havingValue = "local")
+public class LocalCacheService implements CacheService, MetricsSource, DisposableBean {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int SNAPSHOT_MAGIC = 0x41584331;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final ValueCodecRegistry codecRegistry;
+    private final int maxEntries;
+    private final String snapshotFile;
+    private final List<String> snapshotExcludedPrefixes;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final TimingWheel<String> wheel;
+    // guards the wheel; reads never take it
+    private final ReentrantLock wheelLock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    LocalCacheService(
+            ValueCodecRegistry codecRegistry,
+            @Value("${app.cache.local.maxEntries:100000}") int maxEntries,
+            @Value("${app.cache.local.snapshotFile:}") String snapshotFile,
+            @Value("${app.cache.local.snapshotExcludedPrefixes:otp:,register:temp:}") List<String> snapshotExcludedPrefixes
+    ) {
+        this.codecRegistry = codecRegistry;
+        this.maxEntries = maxEntries;
+        this.snapshotFile = snapshotFile;
+        this.snapshotExcludedPrefixes = snapshotExcludedPrefixes;
+        this.wheel = new TimingWheel<>(TICK_MILLIS, System.currentTimeMillis());
+
+        if (!snapshotFile.isBlank()) loadSnapshot(Path.of(snapshotFile));
+    }
+
+    @Override
+    public <T> void put(String key, T value, long ttl, TimeUnit timeUnit) {
+        insert(key, value, deadline(ttl, timeUnit));
+    }
+
+    @Override
+    public <T> Optional<T> get(String key, Class<T> type) {
+        var value = live(entries.get(key), System.currentTimeMillis());
+        if (value == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return type.isInstance(value.value()) ? Optional.of(type.cast(value.value())) : Optional.empty();
+    }
+
+    @Override
+    public void evict(String key) {
+        var removed = entries.remove(key);
+        if (removed != null) cancel(removed.timer());
+    }
+
+    @Override
+    public <T> Map<String, T> multiGet(Collection<String> keys, Class<T> type) {
+        Map<String, T> found = new HashMap<>();
+        for (var key : keys) get(key, type).ifPresent(value -> found.put(key, value));
+        return found;
+    }
+
+    @Override
+    public <T> void putAll(Map<String, T> values, long ttl, TimeUnit timeUnit) {
+        values.forEach((key, value) -> put(key, value, ttl, timeUnit));
+    }
+
+    @Override
+    public <T> Optional<T> getAndDelete(String key, Class<T> type) {
+        var removed = entries.remove(key);
+        if (removed == null) return Optional.empty();
+
+        cancel(removed.timer());
+        var entry = live(removed, System.currentTimeMillis());
+        return entry != null && type.isInstance(entry.value()) ? Optional.of(type.cast(entry.value())) : Optional.empty();
+    }
+
+    @Override
+    public <T> boolean putIfAbsent(String key, T value, long ttl, TimeUnit timeUnit) {
+        long now = System.currentTimeMillis();
+        long expiresAt = deadline(ttl, timeUnit);
+        boolean[] stored = new boolean[1];
+
+        entries.compute(key, (k, existing) -> {
+            if (live(existing, now) != null) return existing;
+            stored[0] = true;
+            return new Entry(key, value, expiresAt, reschedule(existing, key, expiresAt));
+        });
+
+        if (stored[0]) enforceBound();
+        return stored[0];
+    }
+
+    @Override
+    public <T> boolean replace(String key, T expected, T replacement, long ttl, TimeUnit timeUnit) {
+        long now = System.currentTimeMillis();
+        long expiresAt = deadline(ttl, timeUnit);
+        boolean[] replaced = new boolean[1];
+
+        entries.computeIfPresent(key, (k, existing) -> {
+            if (live(existing, now) == null || !expected.equals(existing.value())) return existing;
+            replaced[0] = true;
+            return new Entry(key, replacement, expiresAt, reschedule(existing, key, expiresAt));
+        });
+        return replaced[0];
+    }
+
+    @Override
+    public long increment(String key, long delta, long ttl, TimeUnit timeUnit) {
+        long now = System.currentTimeMillis();
+        boolean[] created = new boolean[1];
+
+        var updated = entries.compute(key, (k, existing) -> {
+            var current = live(existing, now);
+            if (current != null && current.value() instanceof Long count) {
+                // same window: the deadline and its timer carry over
+                return new Entry(key, count + delta, current.expiresAt(), current.timer());
+            }
+            created[0] = true;
+            long expiresAt = deadline(ttl, timeUnit);
+            return new Entry(key, delta, expiresAt, reschedule(existing, key, expiresAt));
+        });
+
+        if (created[0]) enforceBound();
+        return (Long) updated.value();
+    }
+
+    @Override
+    public List<Object> pipeline(Consumer<Batch> operations) {
+        List<Object> results = new ArrayList<>();
+        operations.accept(new Batch() {
+            @Override
+            public <T> void put(String key, T value, long ttl, TimeUnit timeUnit) {
+                LocalCacheService.this.put(key, value, ttl, timeUnit);
+            }
+
+            @Override
+            public void get(String key) {
+                results.add(LocalCacheService.this.get(key, Object.class).orElse(null));
+            }
+
+            @Override
+            public void evict(String key) {
+                LocalCacheService.this.evict(key);
+            }
+
+            @Override
+            public void increment(String key, long delta, long ttl, TimeUnit timeUnit) {
+                results.add(LocalCacheService.this.increment(key, delta, ttl, timeUnit));
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Atomically replaces the live value of {@code key} with the result of {@code update}, keeping its deadline;
+     * a null result removes the entry. Returns the value {@code update} was applied to, or null if there was none.
+     */
+    public <T> @Nullable T update(String key, Class<T> type, UnaryOperator<T> update) {
+        long now = System.currentTimeMillis();
+        Object[] seen = new Object[1];
+
+        entries.computeIfPresent(key, (k, existing) -> {
+            if (live(existing, now) == null) {
+                cancel(existing.timer());
+                return null;
+            }
+            if (!type.isInstance(existing.value())) return existing;
+
+            seen[0] = existing.value();
+            var updated = update.apply(type.cast(existing.value()));
+            if (updated == null) {
+                cancel(existing.timer());
+                return null;
+            }
+            return new Entry(key, updated, existing.expiresAt(), existing.timer());
+        });
+        return type.cast(seen[0]);
+    }
+
+    @Scheduled(fixedDelay = TICK_MILLIS)
+    void expire() {
+        List<TimingWheel.Timer<String>> due = new ArrayList<>();
+        wheelLock.lock();
+        try {
+            wheel.advance(System.currentTimeMillis(), due::add);
+        } finally {
+            wheelLock.unlock();
+        }
+
+        for (var timer : due) {
+            if (removeIfOwner(timer)) expirations.increment();
+        }
+    }
+
+    private void insert(String key, Object value, long expiresAt) {
+        entries.compute(key, (k, existing) -> new Entry(key, value, expiresAt, reschedule(existing, key, expiresAt)));
+        enforceBound();
+    }
+
+    // called inside the map's compute for the key, so the entry and its timer change together
+    private TimingWheel.Timer<String> reschedule(@Nullable Entry replaced, String key, long expiresAt) {
+        wheelLock.lock();
+        try {
+            if (replaced != null) wheel.cancel(replaced.timer());
+            return wheel.schedule(key, expiresAt);
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    private void cancel(TimingWheel.Timer<String> timer) {
+        wheelLock.lock();
+        try {
+            wheel.cancel(timer);
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    // over the bound, drop whatever would have expired next
+    private void enforceBound() {
+        while (entries.size() > maxEntries) {
+            TimingWheel.Timer<String> victim;
+            wheelLock.lock();
+            try {
+                victim = wheel.pollEarliest();
+            } finally {
+                wheelLock.unlock();
+            }
+
+            if (victim == null) break;
+            if (removeIfOwner(victim)) evictions.increment();
+        }
+    }
+
+    // the wheel lock is never held here: map operations take it inside compute, so the order is always map, wheel
+    private boolean removeIfOwner(TimingWheel.Timer<String> timer) {
+        boolean[] removed = new boolean[1];
+        entries.computeIfPresent(timer.item(), (key, current) -> {
+            if (current.timer() != timer) return current;
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    private static Entry live(Entry entry, long now) {
+        return entry != null && entry.expiresAt() > now ? entry : null;
+    }
+
+    private static long deadline(long ttl, TimeUnit timeUnit) {
+        return System.currentTimeMillis() + timeUnit.toMillis(ttl);
+    }
+
+    @Override
+    public void destroy() {
+        if (!snapshotFile.isBlank()) writeSnapshot(Path.of(snapshotFile));
+    }
+
+    private void writeSnapshot(Path file) {
+        long now = System.currentTimeMillis();
+        var out = new BinaryOutput(64 * 1024);
+        out.writeVarLong(SNAPSHOT_MAGIC);
+        out.writeVarLong(SNAPSHOT_VERSION);
+
+        List<Entry> live = entries.values().stream()
+                .filter(entry -> entry.expiresAt() > now)
+                .filter(entry -> snapshotExcludedPrefixes.stream().noneMatch(entry.key()::startsWith))
+                .toList();
+        out.writeVarLong(live.size());
+        for (var entry : live) {
+            out.writeString(entry.key());
+            out.writeVarLong(entry.expiresAt());
+            var bytes = codecRegistry.serialize(entry.value());
+            out.writeVarLong(bytes.length);
+            out.writeBytes(bytes);
+        }
+
+        try {
+            var temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.deleteIfExists(temp);
+            createOwnerOnly(temp);
+            Files.write(temp, out.toByteArray());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote local cache snapshot entries={} file={}", live.size(), file);
+        } catch (IOException e) {
+            log.warn("Failed to write local cache snapshot file={}: {}", file, e.getMessage());
+        }
+    }
+
+    private static void createOwnerOnly(Path file) throws IOException {
+        if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createFile(file);
+        }
+    }
+
+    private void loadSnapshot(Path file) {
+        if (!Files.exists(file)) return;
+
+        long now = System.currentTimeMillis();
+        int loaded = 0;
+        try {
+            var in = new BinaryInput(Files.readAllBytes(file), 0);
+            if (in.readVarLong() != SNAPSHOT_MAGIC || in.readVarLong() != SNAPSHOT_VERSION) {
+                log.warn("Ignoring local cache snapshot in an unknown format file={}", file);
+                return;
+            }
+
+            long count = in.readVarLong();
+            for (long i = 0; i < count; i++) {
+                var key = in.readString();
+                long expiresAt = in.readVarLong();
+                var bytes = in.readBytes(in.readVarInt());
+
+                if (expiresAt <= now) continue;
+                try {
+                    insert(key, codecRegistry.deserialize(bytes), expiresAt);
+                    loaded++;
+                } catch (RuntimeException e) {
+                    // a value whose type changed since the snapshot is dropped, like an unreadable Redis entry
+                    log.debug("Skipping snapshot entry key={}: {}", key, e.getMessage());
+                }
+            }
+            log.info("Loaded local cache snapshot entries={} file={}", loaded, file);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to load local cache snapshot file={}: {}", file, e.getMessage());
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "cache.local";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        int timers;
+        wheelLock.lock();
+        try {
+            timers = wheel.size();
+        } finally {
+            wheelLock.unlock();
+        }
+        return Map.of(
+                "size", entries.size(),
+                "maxEntries", maxEntries,
+                "scheduledTimers", timers,
+                "hits", hits.sum(),
+                "misses", misses.sum(),
+                "expirations", expirations.sum(),
+                "evictions", evictions.sum()
+        );
+    }
+
+    // every entry owns exactly one timer, cancelled when the entry is removed or replaced under a new deadline
+    private record Entry(String key, Object value, long expiresAt, TimingWheel.Timer<String> timer) {
+    }
+}
@@ -0,0 +1,42 @@
+package d76.app.core.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ReactiveCacheService} over the {@link LocalCacheService}; map operations never block, so they run inline.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnProperty(name = "app.cache.type", havingValue = "local")
+public class LocalReactiveCacheService implements ReactiveCacheService {
+
+    private final LocalCacheService cacheService;
+
+    @Override
+    public <T> Mono<Void> put(String key, T value, Duration ttl) {
+        return Mono.fromRunnable(() -> cacheService.put(key, value, ttl.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public <T> Mono<T> get(String key, Class<T> type) {
+        return Mono.fromSupplier(() -> cacheService.get(key, type).orElse(null));
+    }
+
+    @Override
+    public Mono<Void> evict(String key) {
+        return Mono.fromRunnable(() -> cacheService.evict(key));
+    }
+
+    @Override
+    public <T> Mono<Boolean> replace(String key, T expected, T replacement, Duration ttl) {
+        return Mono.fromSupplier(() -> cacheService.replace(key, expected, replacement, ttl.toMillis(), TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,25 @@
+package d76.app.core.service;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking counterpart of {@link CacheService} for the reactive deployment mode.
+ */
+public interface ReactiveCacheService {
+
+    <T> Mono<Void> put(String key, T value, Duration ttl);
+
+    /**
+     * Completes empty when the key is absent.
+     */
+    <T> Mono<T> get(String key, Class<T> type);
+
+    Mono<Void> evict(String key);
+
+    /**
+     * Same compare-and-set as {@link CacheService#replace}.
+     */
+    <T> Mono<Boolean> replace(String key, T expected, T replacement, Duration ttl);
+}
@@ -0,0 +1,57 @@
+package d76.app.core.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+@Service
+@ConditionalOnProperty(name = "app.cache.type", havingValue = "redis", matchIfMissing = true)
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRedisCacheService implements ReactiveCacheService {
+
+    private final ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+
+    @Override
+    public <T> Mono<Void> put(String key, T value, Duration ttl) {
+        return reactiveRedisTemplate.opsForValue().set(key, value, ttl).then();
+    }
+
+    @Override
+    public <T> Mono<T> get(String key, Class<T> type) {
+        return reactiveRedisTemplate.opsForValue().get(key).filter(type::isInstance).map(type::cast);
+    }
+
+    @Override
+    public Mono<Void> evict(String key) {
+        return reactiveRedisTemplate.delete(key).then();
+    }
+
+    @Override
+    public <T> Mono<Boolean> replace(String key, T expected, T replacement, Duration ttl) {
+        var values = reactiveRedisTemplate.getSerializationContext().getValueSerializationPair();
+        var keyBuffer = ByteBuffer.wrap(key.getBytes(StandardCharsets.UTF_8));
+
+        return reactiveRedisTemplate.createMono(connection -> connection.stringCommands().get(keyBuffer))
+                .filter(current -> expected.equals(values.read(current.duplicate())))
+                .flatMap(current -> reactiveRedisTemplate
+                        .execute(RedisCacheService.REPLACE, List.of(key),
+                                List.of(current, values.write(replacement),
+                                        ByteBuffer.wrap(String.valueOf(ttl.toMillis()).getBytes(StandardCharsets.US_ASCII))),
+                                RedisSerializationContext.SerializationPair.byteBuffer().getWriter(),
+                                RedisElementReader.from(RedisCacheService.LONG_SERIALIZER))
+                        .next())
+                .map(replaced -> replaced == 1)
+                .defaultIfEmpty(false);
+    }
+}
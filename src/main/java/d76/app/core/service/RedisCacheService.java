@@ -1,16 +1,48 @@
 package d76.app.core.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Service
+@ConditionalOnProperty(name = "app.cache.type", havingValue = "redis", matchIfMissing = true)
 @RequiredArgsConstructor
 public class RedisCacheService implements CacheService {
 
+    // the ttl only starts with the counter, later increments keep the window
+    private static final RedisScript<Long> INCREMENT = RedisScript.of("""
+            local value = redis.call('INCRBY', KEYS[1], ARGV[1])
+            if redis.call('PTTL', KEYS[1]) < 0 then
+                redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return value
+            """, Long.class);
+
+    // compares the encoded value as it was read, so entries in an older encoding can still be replaced
+    static final RedisScript<Long> REPLACE = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+                return 0
+            end
+            redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+            return 1
+            """, Long.class);
+
+    static final RedisSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
     private final RedisTemplate<String, Object> redisTemplate;
 
     @Override
@@ -20,12 +52,144 @@ public class RedisCacheService implements CacheService {
 
     @Override
     public <T> Optional<T> get(String key, Class<T> type) {
-        var value = redisTemplate.opsForValue().get(key);
-        return Optional.ofNullable(type.cast(value));
+        return cast(redisTemplate.opsForValue().get(key), type);
     }
 
     @Override
     public void evict(String key) {
         redisTemplate.delete(key);
     }
+
+    @Override
+    public <T> Map<String, T> multiGet(Collection<String> keys, Class<T> type) {
+        if (keys.isEmpty()) return Map.of();
+
+        var orderedKeys = List.copyOf(keys);
+        var values = redisTemplate.opsForValue().multiGet(orderedKeys);
+        if (values == null) return Map.of();
+
+        Map<String, T> found = new HashMap<>();
+        for (int i = 0; i < orderedKeys.size(); i++) {
+            var key = orderedKeys.get(i);
+            cast(values.get(i), type).ifPresent(value -> found.put(key, value));
+        }
+        return found;
+    }
+
+    @Override
+    public <T> void putAll(Map<String, T> values, long ttl, TimeUnit timeUnit) {
+        if (values.isEmpty()) return;
+
+        // MSET cannot carry a ttl, so it is one SET per entry in a single pipelined round trip
+        pipeline(batch -> values.forEach((key, value) -> batch.put(key, value, ttl, timeUnit)));
+    }
+
+    @Override
+    public <T> Optional<T> getAndDelete(String key, Class<T> type) {
+        return cast(redisTemplate.opsForValue().getAndDelete(key), type);
+    }
+
+    @Override
+    public <T> boolean putIfAbsent(String key, T value, long ttl, TimeUnit timeUnit) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, value, ttl, timeUnit));
+    }
+
+    @Override
+    public <T> boolean replace(String key, T expected, T replacement, long ttl, TimeUnit timeUnit) {
+        var keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] current = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(keyBytes));
+        if (current == null || !expected.equals(valueSerializer().deserialize(current))) return false;
+
+        Long replaced = redisTemplate.execute(REPLACE, RedisSerializer.byteArray(), LONG_SERIALIZER, List.of(key),
+                current, valueSerializer().serialize(replacement),
+                String.valueOf(timeUnit.toMillis(ttl)).getBytes(StandardCharsets.US_ASCII));
+        return replaced != null && replaced == 1;
+    }
+
+    @Override
+    public long increment(String key, long delta, long ttl, TimeUnit timeUnit) {
+        Long value = redisTemplate.execute(INCREMENT, RedisSerializer.string(), LONG_SERIALIZER,
+                List.of(key), String.valueOf(delta), String.valueOf(timeUnit.toMillis(ttl)));
+        return value == null ? 0 : value;
+    }
+
+    @Override
+    public List<Object> pipeline(Consumer<Batch> operations) {
+        var batch = new RecordedBatch();
+        operations.accept(batch);
+
+        // queued EVALSHA would only report NOSCRIPT when the pipeline closes, failing the whole batch
+        if (batch.usesIncrementScript) loadScript(INCREMENT);
+
+        var results = redisTemplate.executePipelined(new SessionCallback<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> redis) throws DataAccessException {
+                batch.commands.forEach(command -> command.accept((RedisOperations<String, Object>) redis));
+                return null;
+            }
+        });
+
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < results.size() && i < batch.returnsValue.size(); i++) {
+            if (batch.returnsValue.get(i)) values.add(results.get(i));
+        }
+        return values;
+    }
+
+    private void loadScript(RedisScript<?> script) {
+        byte[] source = script.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        redisTemplate.execute((RedisCallback<String>) connection -> connection.scriptingCommands().scriptLoad(source));
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<Object> valueSerializer() {
+        return (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+    }
+
+    // an entry of another shape, e.g. left by an older release, counts as a miss
+    private static <T> Optional<T> cast(Object value, Class<T> type) {
+        return type.isInstance(value) ? Optional.of(type.cast(value)) : Optional.empty();
+    }
+
+    // queued until the pipeline opens, so the scripts it needs can be loaded first
+    private static final class RecordedBatch implements Batch {
+
+        private final List<Consumer<RedisOperations<String, Object>>> commands = new ArrayList<>();
+        // whether each queued command yields a result the caller asked for; puts and evicts are left out
+        private final List<Boolean> returnsValue = new ArrayList<>();
+        private boolean usesIncrementScript;
+
+        @Override
+        public <T> void put(String key, T value, long ttl, TimeUnit timeUnit) {
+            commands.add(redis -> redis.opsForValue().set(key, value, ttl, timeUnit));
+            returnsValue.add(false);
+        }
+
+        @Override
+        public void get(String key) {
+            commands.add(redis -> redis.opsForValue().get(key));
+            returnsValue.add(true);
+        }
+
+        @Override
+        public void evict(String key) {
+            commands.add(redis -> redis.delete(key));
+            returnsValue.add(false);
+        }
+
+        @Override
+        public void increment(String key, long delta, long ttl, TimeUnit timeUnit) {
+            byte[][] keyAndArgs = {
+                    key.getBytes(StandardCharsets.UTF_8),
+                    String.valueOf(delta).getBytes(StandardCharsets.US_ASCII),
+                    String.valueOf(timeUnit.toMillis(ttl)).getBytes(StandardCharsets.US_ASCII)
+            };
+            // by sha, since the script is loaded before the pipeline opens
+            commands.add(redis -> redis.execute((RedisCallback<Long>) connection ->
+                    connection.scriptingCommands().evalSha(INCREMENT.getSha1(), ReturnType.INTEGER, 1, keyAndArgs)));
+            returnsValue.add(true);
+            usesIncrementScript = true;
+        }
+    }
 }
@@ -0,0 +1,99 @@
+package d76.app.core.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings. {@link #mightContain} never returns false for an added value;
+ * a true answer has to be confirmed against an authoritative source.
+ * Elements cannot be removed, callers rebuild the filter when its contents shrink.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    private BloomFilter(long bitCount, int hashCount) {
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (bitCount + 63) / 64);
+        this.bits = new AtomicLongArray(Math.max(1, words));
+        this.bitCount = (long) this.bits.length() * 64;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Sizes the filter so that {@code expectedInsertions} elements give roughly {@code falsePositiveRate}.
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        double p = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        int k = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        return new BloomFilter(m, k);
+    }
+
+    public void put(String value) {
+        long h1 = hash(value, 0x9E3779B97F4A7C15L);
+        long h2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1;
+
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long h1 = hash(value, 0x9E3779B97F4A7C15L);
+        long h2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1;
+
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Fraction of bits set; the false positive rate is about {@code fillRatio ^ hashCount}.
+     */
+    public double fillRatio() {
+        long set = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            set += Long.bitCount(bits.get(i));
+        }
+        return (double) set / bitCount;
+    }
+
+    public double expectedFalsePositiveRate() {
+        return Math.pow(fillRatio(), hashCount);
+    }
+
+    // 64-bit FNV-1a over the UTF-16 chars with a murmur finalizer, seeded so two independent hashes can be derived
+    private static long hash(String value, long seed) {
+        long h = 0xCBF29CE484222325L ^ seed;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93053B5D2E1L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
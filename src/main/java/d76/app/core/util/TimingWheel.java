@@ -0,0 +1,193 @@
+package d76.app.core.util;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: five levels of 64 slots, each level 64 times coarser than the one below, so scheduling,
+ * cancelling and expiring are O(1) however far out a deadline is. Every slot is an intrusive doubly linked list, so
+ * a cancelled {@link Timer} is unlinked right away and holds on to nothing until its slot comes up.
+ * <p>
+ * Not thread-safe; callers serialize access.
+ */
+public final class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 5;
+
+    private final long tickMillis;
+    private final Slot<T>[][] slots;
+
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        this.slots = new Slot[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) slots[level][slot] = new Slot<>();
+        }
+    }
+
+    public Timer<T> schedule(T item, long deadlineMillis) {
+        // rounded up, so an item never fires before its deadline
+        var timer = new Timer<>(item, Math.max((deadlineMillis + tickMillis - 1) / tickMillis, currentTick + 1));
+        insert(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * Unlinks the timer; does nothing if it already fired, was polled or was cancelled before.
+     */
+    public void cancel(Timer<T> timer) {
+        if (timer.slot == null) return;
+
+        timer.slot.unlink(timer);
+        size--;
+    }
+
+    /**
+     * Moves the wheel to {@code nowMillis}, handing every timer whose deadline has passed to {@code expired}.
+     */
+    public void advance(long nowMillis, Consumer<Timer<T>> expired) {
+        long targetTick = nowMillis / tickMillis;
+
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            // redistribute the coarser slots that start at this tick, top level first
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    for (var timer = slots[level][slotIndex(currentTick, level)].detachAll(); timer != null; ) {
+                        var next = timer.next;
+                        timer.next = null;
+                        insert(timer);
+                        timer = next;
+                    }
+                }
+            }
+
+            for (var timer = slots[0][(int) (currentTick & SLOT_MASK)].detachAll(); timer != null; ) {
+                var next = timer.next;
+                timer.next = null;
+                if (timer.tick > currentTick) {
+                    // beyond the wheel's span when scheduled, still not due
+                    insert(timer);
+                } else {
+                    size--;
+                    expired.accept(timer);
+                }
+                timer = next;
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the timer with the earliest deadline, at slot granularity: a timer of the slot whose span
+     * starts soonest, across all levels. Null if there is none.
+     */
+    public Timer<T> pollEarliest() {
+        Slot<T> earliest = null;
+        long earliestStart = Long.MAX_VALUE;
+
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * level;
+            long block = currentTick >>> shift;
+
+            // the current block's slot comes last: it is drained at level 0,
+            // and on coarser levels it only holds timers a full turn away
+            for (int offset = 1; offset <= SLOTS; offset++) {
+                var slot = slots[level][(int) ((block + offset) & SLOT_MASK)];
+                if (slot.head == null) continue;
+
+                long start = (block + offset) << shift;
+                if (start < earliestStart) {
+                    earliest = slot;
+                    earliestStart = start;
+                }
+                break;
+            }
+        }
+
+        if (earliest == null) return null;
+
+        var timer = earliest.head;
+        earliest.unlink(timer);
+        size--;
+        return timer;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void insert(Timer<T> timer) {
+        long delta = timer.tick - currentTick;
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) level++;
+
+        slots[level][slotIndex(timer.tick, level)].link(timer);
+    }
+
+    private static int slotIndex(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+    }
+
+    public static final class Timer<T> {
+
+        private final T item;
+        private final long tick;
+
+        private Slot<T> slot;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(T item, long tick) {
+            this.item = item;
+            this.tick = tick;
+        }
+
+        public T item() {
+            return item;
+        }
+    }
+
+    private static final class Slot<T> {
+
+        private Timer<T> head;
+
+        void link(Timer<T> timer) {
+            timer.slot = this;
+            timer.prev = null;
+            timer.next = head;
+            if (head != null) head.prev = timer;
+            head = timer;
+        }
+
+        void unlink(Timer<T> timer) {
+            if (timer.prev != null) timer.prev.next = timer.next;
+            else head = timer.next;
+            if (timer.next != null) timer.next.prev = timer.prev;
+
+            timer.slot = null;
+            timer.prev = null;
+            timer.next = null;
+        }
+
+        // empties the slot and returns its timers as a chain still walkable through next
+        Timer<T> detachAll() {
+            var first = head;
+            head = null;
+            for (var timer = first; timer != null; timer = timer.next) {
+                timer.slot = null;
+                timer.prev = null;
+            }
+            return first;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package d76.app.home;
 
 import io.jsonwebtoken.Jwts;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -10,7 +9,6 @@ import java.security.Key;
 import java.util.Base64;
 
 @RestController
-@EnableMethodSecurity
 public class HomeController {
 
 //    @GetMapping("/")
@@ -8,7 +8,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -18,7 +17,6 @@ public class SmtpMailSender implements MailSender {
     private final JavaMailSender javaMailSender;
 
     @Override
-    @Async
     public void send(MailMessage message) {
 
         var contentType = message.contentType();
@@ -5,7 +5,8 @@ import org.springframework.http.HttpStatus;
 
 public enum OtpErrorCode implements ErrorCode {
     OTP_EXPIRED(HttpStatus.BAD_REQUEST, "The OTP has expired. Please request a new code."),
-    INVALID_OTP(HttpStatus.BAD_REQUEST, "The OTP is incorrect. Please check the code you entered.");
+    INVALID_OTP(HttpStatus.BAD_REQUEST, "The OTP is incorrect. Please check the code you entered."),
+    OTP_ATTEMPTS_EXCEEDED(HttpStatus.TOO_MANY_REQUESTS, "Too many incorrect attempts. Please request a new code.");
 
     private final String defaultMessage;
     private final HttpStatus status;
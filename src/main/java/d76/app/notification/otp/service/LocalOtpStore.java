@@ -0,0 +1,42 @@
+package d76.app.notification.otp.service;
+
+import d76.app.core.service.LocalCacheService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Codes kept in the {@link LocalCacheService} ({@code app.cache.type=local}), so they expire with the rest of the
+ * cache; they are left out of its snapshot. Verification is one atomic update of the entry.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.cache.type", havingValue = "local")
+public class LocalOtpStore implements OtpStore {
+
+    private static final String KEY_PREFIX = "otp:";
+
+    private final LocalCacheService cacheService;
+
+    @Override
+    public void put(String key, String otp, long ttlSeconds) {
+        cacheService.put(KEY_PREFIX + key, new PendingOtp(otp, 0), ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public Result verify(String key, String otp, int maxAttempts) {
+        var seen = cacheService.update(KEY_PREFIX + key, PendingOtp.class, pending -> {
+            if (pending.code().equals(otp) || pending.attempts() + 1 >= maxAttempts) return null;
+            return new PendingOtp(pending.code(), pending.attempts() + 1);
+        });
+
+        if (seen == null) return Result.EXPIRED;
+        if (seen.code().equals(otp)) return Result.VERIFIED;
+        return seen.attempts() + 1 >= maxAttempts ? Result.ATTEMPTS_EXCEEDED : Result.INVALID;
+    }
+
+    record PendingOtp(String code, int attempts) {
+    }
+}
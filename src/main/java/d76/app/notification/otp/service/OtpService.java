@@ -1,36 +1,35 @@
 package d76.app.notification.otp.service;
 
 import d76.app.core.exception.BusinessException;
-import d76.app.core.service.CacheService;
 import d76.app.notification.otp.exception.OtpErrorCode;
-import d76.app.notification.otp.model.OtpData;
 import d76.app.notification.otp.model.OtpPurpose;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.security.SecureRandom;
-import java.time.Instant;
-import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
 public class OtpService {
 
-    private final CacheService cacheService;
+    private final OtpStore otpStore;
     private final SecureRandom secureRandom;
 
     private final int otpLength;
     private final long ttlSeconds;
+    private final int maxAttempts;
 
     public OtpService(
-            CacheService cacheService,
+            OtpStore otpStore,
             @Value("${otp.length}") int otpLength,
-            @Value("${otp.ttl}") long ttlSeconds
+            @Value("${otp.ttl}") long ttlSeconds,
+            @Value("${otp.maxAttempts:5}") int maxAttempts
     ) {
-        this.cacheService = cacheService;
+        this.otpStore = otpStore;
         this.otpLength = otpLength;
         this.ttlSeconds = ttlSeconds;
+        this.maxAttempts = maxAttempts;
         this.secureRandom = new SecureRandom();
     }
 
@@ -45,29 +44,22 @@ public class OtpService {
         String key = userId + ":" + otpPurpose.name();
 
         String otp = generateOtp();
-        var otpData = new OtpData(otp, otpPurpose, Instant.now());
-
-        cacheService.put(key, otpData, ttlSeconds, TimeUnit.SECONDS);
+        otpStore.put(key, otp, ttlSeconds);
         return otp;
     }
 
     public void verifyOtp(String userId, String otp, OtpPurpose otpPurpose) {
         String key = userId + ":" + otpPurpose.name();
 
-        OtpData otpData = cacheService.get(key, OtpData.class).orElseThrow(
-                () -> new BusinessException(OtpErrorCode.OTP_EXPIRED)
-        );
-
-        if (!otpPurpose.equals(otpData.purpose())) {
-            log.warn("OTP validation failed user={} purpose={} expected={} reason=otp_mismatch",
-                    userId, otpPurpose, otpData.purpose());
-
-            throw new BusinessException(OtpErrorCode.INVALID_OTP);
-        }
-
-        if (!otp.equals(otpData.otp())) {
-            throw new BusinessException(OtpErrorCode.INVALID_OTP);
+        switch (otpStore.verify(key, otp, maxAttempts)) {
+            case VERIFIED -> {
+            }
+            case EXPIRED -> throw new BusinessException(OtpErrorCode.OTP_EXPIRED);
+            case INVALID -> throw new BusinessException(OtpErrorCode.INVALID_OTP);
+            case ATTEMPTS_EXCEEDED -> {
+                log.warn("OTP invalidated user={} purpose={} reason=too_many_attempts", userId, otpPurpose);
+                throw new BusinessException(OtpErrorCode.OTP_ATTEMPTS_EXCEEDED);
+            }
         }
-        cacheService.evict(key);
     }
 }
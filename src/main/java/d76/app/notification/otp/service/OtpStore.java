@@ -0,0 +1,26 @@
+package d76.app.notification.otp.service;
+
+/**
+ * Issued one-time codes with a bounded number of guesses. Verification is a single atomic operation, so a code
+ * can be consumed by at most one submission and the attempt count cannot be raced past its limit.
+ */
+public interface OtpStore {
+
+    /**
+     * Stores {@code otp} under {@code key}, replacing any earlier code and its attempt count.
+     */
+    void put(String key, String otp, long ttlSeconds);
+
+    /**
+     * Compares {@code otp} with the stored code; consumes it on a match and drops it on the
+     * {@code maxAttempts}-th mismatch.
+     */
+    Result verify(String key, String otp, int maxAttempts);
+
+    enum Result {
+        VERIFIED,
+        INVALID,
+        EXPIRED,
+        ATTEMPTS_EXCEEDED
+    }
+}
@@ -0,0 +1,60 @@
+package d76.app.notification.otp.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Codes kept in a hash of {@code code} and {@code attempts}; issuing and verifying are Lua scripts,
+ * one round trip each.
+ */
+@Service
+@ConditionalOnProperty(name = "app.cache.type", havingValue = "redis", matchIfMissing = true)
+@RequiredArgsConstructor
+public class RedisOtpStore implements OtpStore {
+
+    private static final String KEY_PREFIX = "otp:";
+
+    private static final RedisScript<Long> PUT = RedisScript.of("""
+            redis.call('DEL', KEYS[1])
+            redis.call('HSET', KEYS[1], 'code', ARGV[1], 'attempts', 0)
+            redis.call('EXPIRE', KEYS[1], ARGV[2])
+            return 1
+            """, Long.class);
+
+    // 0 expired, 1 verified, 2 invalid, 3 invalid and out of attempts
+    private static final RedisScript<Long> VERIFY = RedisScript.of("""
+            local code = redis.call('HGET', KEYS[1], 'code')
+            if not code then
+                return 0
+            end
+            if code == ARGV[1] then
+                redis.call('DEL', KEYS[1])
+                return 1
+            end
+            if redis.call('HINCRBY', KEYS[1], 'attempts', 1) >= tonumber(ARGV[2]) then
+                redis.call('DEL', KEYS[1])
+                return 3
+            end
+            return 2
+            """, Long.class);
+
+    private static final Result[] RESULTS = {Result.EXPIRED, Result.VERIFIED, Result.INVALID, Result.ATTEMPTS_EXCEEDED};
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public void put(String key, String otp, long ttlSeconds) {
+        redisTemplate.execute(PUT, List.of(KEY_PREFIX + key), otp, String.valueOf(ttlSeconds));
+    }
+
+    @Override
+    public Result verify(String key, String otp, int maxAttempts) {
+        Long result = redisTemplate.execute(VERIFY, List.of(KEY_PREFIX + key), otp, String.valueOf(maxAttempts));
+        return result == null ? Result.EXPIRED : RESULTS[result.intValue()];
+    }
+}
@@ -4,13 +4,16 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import d76.app.auth.exception.AuthErrorCode;
 import d76.app.core.exception.ApiErrorResponse;
+import d76.app.security.crypto.HashingCapacityExceededException;
 import d76.app.security.jwt.JwtService;
 import d76.app.security.jwt.model.JwtPurpose;
+import d76.app.security.throttle.LoginThrottle;
 import d76.app.user.exception.UserErrorCode;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.jspecify.annotations.NullMarked;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
@@ -28,6 +31,7 @@ public class LoginFailureHandler implements AuthenticationFailureHandler {
 
     private final ObjectMapper objectMapper;
     private final JwtService jwtService;
+    private final LoginThrottle loginThrottle;
 
     @Override
     public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse res, AuthenticationException ex) throws IOException {
@@ -86,6 +90,21 @@ public class LoginFailureHandler implements AuthenticationFailureHandler {
             }
         }
 
+        if (ex instanceof HashingCapacityExceededException) {
+            var errorCode = AuthErrorCode.AUTHENTICATION_BUSY;
+            ApiErrorResponse errorResponse = ApiErrorResponse.builder().statusCode(errorCode.getStatus().value()).errorCode(errorCode.getCode()).message(errorCode.defaultMessage()).path(request.getRequestURI()).timestamp(Instant.now()).authProvider("EMAIL").build();
+
+            res.setStatus(errorCode.getStatus().value());
+            res.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(HashingCapacityExceededException.RETRY_AFTER_SECONDS));
+            res.setContentType("application/json");
+            res.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+            return;
+        }
+
+        if (!(ex instanceof OAuth2AuthenticationException)) {
+            loginThrottle.recordFailure(request.getParameter("username"), request.getRemoteAddr());
+        }
+
         var errorCode = AuthErrorCode.INVALID_CREDENTIALS;
         ApiErrorResponse errorResponse = ApiErrorResponse.builder().statusCode(errorCode.getStatus().value()).errorCode(errorCode.getCode()).message(errorCode.defaultMessage()).path(request.getRequestURI()).timestamp(Instant.now()).authProvider("EMAIL").build();
 
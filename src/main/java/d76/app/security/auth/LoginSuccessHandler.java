@@ -1,8 +1,11 @@
     package d76.app.security.auth;
 
     import d76.app.auth.dto.LoginSuccess;
+    import d76.app.auth.model.IdentityProvider;
+    import d76.app.auth.service.RefreshTokenService;
     import d76.app.security.jwt.JwtService;
     import d76.app.security.principal.UserPrincipal;
+    import d76.app.security.throttle.LoginThrottle;
     import jakarta.servlet.http.HttpServletRequest;
     import jakarta.servlet.http.HttpServletResponse;
     import lombok.RequiredArgsConstructor;
@@ -22,6 +25,8 @@
     public class LoginSuccessHandler implements AuthenticationSuccessHandler {
 
         private final JwtService jwtService;
+        private final RefreshTokenService refreshTokenService;
+        private final LoginThrottle loginThrottle;
         private final ObjectMapper objectMapper;
 
         @Override
@@ -36,12 +41,18 @@
             String username = principal.getUsername();
             String provider = principal.getIdentityProvider().name();
 
+            if (principal.getIdentityProvider() == IdentityProvider.EMAIL) {
+                loginThrottle.recordSuccess(request.getParameter("username"));
+            }
+
             var token = jwtService.generateAccessToken(principal);
+            var refreshToken = refreshTokenService.issue(principal);
 
             var loginResponse = LoginSuccess.builder()
                     .status("LOGIN_SUCCESS")
                     .username(username)
                     .accessToken(token)
+                    .refreshToken(refreshToken)
                     .identityProvider(provider)
                     .issuedAt(Instant.now())
                     .build();
@@ -0,0 +1,82 @@
+package d76.app.security.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import d76.app.auth.service.RefreshTokenService;
+import d76.app.core.exception.BusinessException;
+import d76.app.security.jwt.AccessTokenDecoder;
+import d76.app.security.revocation.RevokedTokenRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.logout.LogoutHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Revokes the bearer access token of the logout request and, when the JSON body carries a
+ * {@code refreshToken}, its refresh token family. Invalid or missing tokens are ignored, logout always succeeds.
+ */
+@Slf4j
+@NullMarked
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationLogoutHandler implements LogoutHandler {
+
+    private final AccessTokenDecoder accessTokenDecoder;
+    private final RevokedTokenRegistry revokedTokens;
+    private final RefreshTokenService refreshTokenService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void logout(HttpServletRequest request, HttpServletResponse response, @Nullable Authentication authentication) {
+        revokeAccessToken(request.getHeader("Authorization"));
+
+        if (isJson(request.getContentType())) {
+            try {
+                var refreshToken = readRefreshToken(request.getInputStream());
+                if (refreshToken != null) refreshTokenService.revoke(refreshToken);
+            } catch (IOException e) {
+                log.debug("Unreadable logout body, no refresh token revoked");
+            }
+        }
+    }
+
+    public void revokeAccessToken(@Nullable String authorizationHeader) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) return;
+
+        try {
+            var claims = accessTokenDecoder.decode(authorizationHeader.substring("Bearer ".length()).trim());
+            if (claims.tokenId() != null) {
+                revokedTokens.revoke(claims.tokenId(), claims.expiresAtEpochSecond());
+            }
+        } catch (BusinessException e) {
+            log.debug("Logout with an invalid access token, nothing to revoke");
+        }
+    }
+
+    public static boolean isJson(@Nullable String contentType) {
+        try {
+            return contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    public @Nullable String readRefreshToken(InputStream body) {
+        try {
+            var node = objectMapper.readTree(body);
+            var value = node == null ? null : node.get("refreshToken");
+            return value != null && value.isTextual() ? value.asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -5,13 +5,17 @@ import d76.app.security.access.RestAuthenticationEntryPoint;
 import d76.app.security.auth.LoginFailureHandler;
 import d76.app.security.auth.LoginSuccessHandler;
 import d76.app.security.auth.LogoutSuccessHandler;
+import d76.app.security.auth.TokenRevocationLogoutHandler;
 import d76.app.security.jwt.JwtFilter;
 import d76.app.security.oauth.CustomOidcUserService;
+import d76.app.security.throttle.LoginThrottleFilter;
 import lombok.RequiredArgsConstructor;
 import org.jspecify.annotations.NullMarked;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -23,15 +27,19 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @Configuration
 @RequiredArgsConstructor
 @EnableWebSecurity
+@EnableMethodSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SecurityConfig {
 
     private final RestAuthenticationEntryPoint authenticationEntryPoint;
     private final RestAccessDeniedHandler accessDeniedHandler;
     private final LogoutSuccessHandler logoutSuccessHandler;
+    private final TokenRevocationLogoutHandler tokenRevocationLogoutHandler;
     private final LoginSuccessHandler authenticationSuccessHandler;
     private final LoginFailureHandler authenticationFailureHandler;
     private final CustomOidcUserService oidcUserService;
     private final JwtFilter jwtFilter;
+    private final LoginThrottleFilter loginThrottleFilter;
 
     @Bean
     SecurityFilterChain filterChain(HttpSecurity security) {
@@ -49,6 +57,7 @@ public class SecurityConfig {
                 )
                 .logout(l -> l
                         .logoutUrl("/api/auth/logout")
+                        .addLogoutHandler(tokenRevocationLogoutHandler)
                         .logoutSuccessHandler(logoutSuccessHandler)
                 )
                 .oauth2Login(oauth2 -> oauth2
@@ -70,6 +79,7 @@ public class SecurityConfig {
                                 "/error"
                         ).permitAll()
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**").permitAll()
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
                         .requestMatchers(
                                 "/",
                                 "/login",
@@ -89,6 +99,7 @@ public class SecurityConfig {
                         .accessDeniedHandler(accessDeniedHandler)
                         .authenticationEntryPoint(authenticationEntryPoint)
                 )
+                .addFilterBefore(loginThrottleFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
         return security.build();
     }
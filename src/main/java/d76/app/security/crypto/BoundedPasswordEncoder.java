@@ -0,0 +1,140 @@
+package d76.app.security.crypto;
+
+import d76.app.core.metrics.MetricsSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs password hashing on a small pool of platform threads, so at most {@code maxConcurrentHashes}
+ * hashes are computed at once and at most {@code queueCapacity} more wait for a thread.
+ * <p>
+ * Hashing is pure CPU and is never preempted on a virtual thread: a hash computed on the caller would hold
+ * its carrier for the whole ~100ms, and a login burst could occupy every carrier and stall all other requests.
+ * Here the caller only waits for the result, which parks a virtual thread and releases its carrier, while the
+ * hashing threads are time-sliced by the OS like any other platform thread.
+ * <p>
+ * When the queue is full the hash is refused with {@link HashingCapacityExceededException} instead of piling up
+ * callers that would time out anyway, so a login storm costs a fast 503 rather than the whole node.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, MetricsSource, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor hashingPool;
+    private final int queueCapacity;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+    private final LongAdder waitNanosTotal = new LongAdder();
+    private final LongAccumulator waitNanosMax = new LongAccumulator(Long::max, 0);
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int maxConcurrentHashes, int queueCapacity) {
+        this.delegate = delegate;
+        this.queueCapacity = queueCapacity;
+
+        var threadIds = new AtomicInteger();
+        this.hashingPool = new ThreadPoolExecutor(
+                maxConcurrentHashes, maxConcurrentHashes,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    var thread = new Thread(runnable, "password-hash-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hash(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hash(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * A rehash costs an extra hash on login, so it is deferred while the queue is more than half full;
+     * it happens on a later login instead of failing this one.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword) && hashingPool.getQueue().size() < queueCapacity / 2;
+    }
+
+    /**
+     * The wrapped encoder, for batch work that hashes on a pool of its own instead of competing with logins.
+     */
+    public PasswordEncoder unbounded() {
+        return delegate;
+    }
+
+    @Override
+    public void close() {
+        hashingPool.shutdown();
+    }
+
+    private <T> T hash(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+
+        Future<T> result;
+        try {
+            result = hashingPool.submit(() -> {
+                recordWait(System.nanoTime() - submittedAt);
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.debug("Password hashing rejected, queue full queued={} capacity={}", hashingPool.getQueue().size(), queueCapacity);
+            throw new HashingCapacityExceededException("Password hashing capacity exceeded");
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a password hash", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private void recordWait(long nanos) {
+        waited.increment();
+        waitNanosTotal.add(nanos);
+        waitNanosMax.accumulate(nanos);
+    }
+
+    @Override
+    public String metricsName() {
+        return "crypto.passwordHashing";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        long count = waited.sum();
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("threads", hashingPool.getMaximumPoolSize());
+        metrics.put("active", hashingPool.getActiveCount());
+        metrics.put("queued", hashingPool.getQueue().size());
+        metrics.put("queueCapacity", queueCapacity);
+        metrics.put("completed", hashingPool.getCompletedTaskCount());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("avgQueueWaitMillis", count == 0 ? 0.0 : waitNanosTotal.sum() / 1e6 / count);
+        metrics.put("maxQueueWaitMillis", waitNanosMax.get() / 1e6);
+        return metrics;
+    }
+}
@@ -0,0 +1,153 @@
+package d76.app.security.crypto;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.ClassUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the {@link DelegatingPasswordEncoder} used for local accounts.
+ * <p>
+ * New hashes are written as {@code {bcrypt}$2a$<cost>$...} or {@code {argon2id}$argon2id$v=19$m=..,t=..,p=..$...},
+ * with the work factor picked at startup so one hash takes about {@code targetHashMillis} on this machine.
+ * {@code upgradeEncoding} is true for any hash whose algorithm or parameters differ from the current ones,
+ * which makes Spring Security rehash it on the next successful login. Hashes stored before the prefix was
+ * introduced are plain bcrypt and still match.
+ * <p>
+ * Nodes calibrate independently, so clusters on mixed hardware should pin the work factor
+ * ({@code app.crypto.bcrypt.cost} / {@code app.crypto.argon2.iterations}), otherwise logins landing on different
+ * nodes keep rehashing each other's hashes.
+ */
+@Slf4j
+public final class CalibratedPasswordEncoders {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2ID = "argon2id";
+
+    // never below the previous library default
+    private static final int BCRYPT_MIN_COST = 10;
+    private static final int BCRYPT_MAX_COST = 16;
+
+    // OWASP floor for argon2id at 19 MiB
+    private static final int ARGON2_MIN_ITERATIONS = 2;
+    private static final int ARGON2_MAX_ITERATIONS = 10;
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+    private static final int ARGON2_PARALLELISM = 1;
+
+    private static final int SAMPLES = 3;
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d{2})\\$");
+
+    private CalibratedPasswordEncoders() {
+    }
+
+    public static PasswordEncoder create(
+            String algorithm,
+            Duration targetHashTime,
+            int bcryptCost,
+            int argon2MemoryKiB,
+            int argon2Iterations
+    ) {
+        boolean argon2Available = ClassUtils.isPresent("org.bouncycastle.crypto.generators.Argon2BytesGenerator", null);
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        PasswordEncoder bcryptMatcher = new BCryptPasswordEncoder();
+        encoders.put(BCRYPT, bcryptMatcher);
+        if (argon2Available) {
+            encoders.put(ARGON2ID, Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        }
+
+        switch (algorithm.toLowerCase()) {
+            case BCRYPT -> {
+                int cost = bcryptCost > 0 ? bcryptCost : calibrateBCrypt(targetHashTime);
+                encoders.put(BCRYPT, new PinnedBCryptPasswordEncoder(cost));
+                log.info("Password hashing: bcrypt cost={} target={}ms", cost, targetHashTime.toMillis());
+            }
+            case ARGON2ID -> {
+                if (!argon2Available) {
+                    throw new IllegalStateException("app.crypto.algorithm=argon2id requires org.bouncycastle:bcprov-jdk18on on the classpath");
+                }
+                int iterations = argon2Iterations > 0 ? argon2Iterations : calibrateArgon2(argon2MemoryKiB, targetHashTime);
+                encoders.put(ARGON2ID, new PinnedArgon2PasswordEncoder(argon2MemoryKiB, iterations));
+                log.info("Password hashing: argon2id memory={}KiB iterations={} target={}ms", argon2MemoryKiB, iterations, targetHashTime.toMillis());
+            }
+            default -> throw new IllegalStateException("Unsupported app.crypto.algorithm: " + algorithm);
+        }
+
+        var delegating = new DelegatingPasswordEncoder(algorithm.toLowerCase(), encoders);
+        delegating.setDefaultPasswordEncoderForMatches(bcryptMatcher);
+        return delegating;
+    }
+
+    // bcrypt doubles its work with every cost step, so one measurement at the floor predicts the others
+    static int calibrateBCrypt(Duration target) {
+        long nanos = fastest(new BCryptPasswordEncoder(BCRYPT_MIN_COST));
+
+        int cost = BCRYPT_MIN_COST;
+        while (cost < BCRYPT_MAX_COST && nanos * 2 <= target.toNanos()) {
+            nanos *= 2;
+            cost++;
+        }
+        return cost;
+    }
+
+    // argon2 work grows linearly with iterations at a fixed memory size
+    static int calibrateArgon2(int memoryKiB, Duration target) {
+        long nanos = fastest(new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, ARGON2_PARALLELISM, memoryKiB, 1));
+        long iterations = nanos == 0 ? ARGON2_MAX_ITERATIONS : target.toNanos() / nanos;
+        return (int) Math.clamp(iterations, ARGON2_MIN_ITERATIONS, ARGON2_MAX_ITERATIONS);
+    }
+
+    private static long fastest(PasswordEncoder encoder) {
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest;
+    }
+
+    /**
+     * Rehashes on any cost change, where {@link BCryptPasswordEncoder} only rehashes weaker hashes.
+     */
+    private static final class PinnedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+        private final int cost;
+
+        PinnedBCryptPasswordEncoder(int cost) {
+            super(cost);
+            this.cost = cost;
+        }
+
+        @Override
+        protected boolean upgradeEncodingNonNull(String encodedPassword) {
+            var matcher = BCRYPT_COST.matcher(encodedPassword);
+            return !matcher.find() || Integer.parseInt(matcher.group(1)) != cost;
+        }
+    }
+
+    private static final class PinnedArgon2PasswordEncoder extends Argon2PasswordEncoder {
+
+        private final String parameters;
+
+        PinnedArgon2PasswordEncoder(int memoryKiB, int iterations) {
+            super(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, ARGON2_PARALLELISM, memoryKiB, iterations);
+            this.parameters = "$m=" + memoryKiB + ",t=" + iterations + ",p=" + ARGON2_PARALLELISM + "$";
+        }
+
+        @Override
+        protected boolean upgradeEncodingNonNull(String encodedPassword) {
+            return !encodedPassword.startsWith("$argon2id$") || !encodedPassword.contains(parameters);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package d76.app.security.crypto;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Thrown when the password hashing queue is full. Being an {@code AuthenticationException}, it reaches the login
+ * failure handlers like any other failed login; outside of login it is handled by the exception handlers.
+ * Both answer with 503 and a {@code Retry-After} header.
+ */
+public class HashingCapacityExceededException extends AuthenticationServiceException {
+
+    public static final long RETRY_AFTER_SECONDS = 1;
+
+    public HashingCapacityExceededException(String message) {
+        super(message);
+    }
+}
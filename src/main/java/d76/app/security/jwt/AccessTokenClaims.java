@@ -0,0 +1,21 @@
+package d76.app.security.jwt;
+
+import d76.app.auth.model.IdentityProvider;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+/**
+ * The fixed claim set carried by an access token, already verified.
+ * {@code authorities} is a canonical shared list from {@code AuthoritySets};
+ * {@code tokenId} is the {@code jti}, absent only on tokens minted before it was introduced.
+ */
+public record AccessTokenClaims(
+        String tokenId,
+        long userId,
+        String email,
+        IdentityProvider identityProvider,
+        List<GrantedAuthority> authorities,
+        long expiresAtEpochSecond
+) {
+}
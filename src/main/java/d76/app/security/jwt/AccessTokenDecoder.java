@@ -0,0 +1,405 @@
+package d76.app.security.jwt;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import d76.app.auth.exception.AuthErrorCode;
+import d76.app.auth.model.IdentityProvider;
+import d76.app.core.exception.BusinessException;
+import d76.app.core.metrics.MetricsSource;
+import d76.app.security.jwt.key.JwtKeyRing;
+import d76.app.security.principal.AuthoritySets;
+import d76.app.security.revocation.RevokedTokenRegistry;
+import d76.app.user.service.RoleCatalog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifies access tokens and decodes the fixed claim set we issue
+ * ({@code jti}, {@code sub}, {@code email}, {@code identityProvider}, {@code roles} or the
+ * {@code rm}/{@code rv} role bitmask, {@code exp}).
+ * <p>
+ * HS256 tokens signed with {@code jwt.secret} take a fast path, as long as the key ring still accepts
+ * them: the HMAC runs on pooled {@link Mac} instances and buffers, the payload is read with a streaming
+ * parser straight into {@link AccessTokenClaims}, and authorities resolve to canonical shared lists. Every
+ * other token (asymmetric, carrying a kid) is verified through {@link JwtService#extractClaims}.
+ * Revoked tokens are rejected after verification, cached or not.
+ * <p>
+ * Decoding only blocks to refresh the key ring for an unseen kid or to reload the role catalog for an unseen
+ * version; {@link #decodeIfReady} lets event-loop callers run everything else inline.
+ */
+@Slf4j
+@Component
+public class AccessTokenDecoder implements MetricsSource {
+
+    // base64url of {"alg":"HS256"}, the only header JwtService writes for jwt.secret tokens
+    private static final String HS256_HEADER = "eyJhbGciOiJIUzI1NiJ9";
+    private static final int MAX_TOKEN_LENGTH = 8192;
+    private static final int HS256_SIGNATURE_LENGTH = 32;
+
+    private static final IdentityProvider[] PROVIDERS = IdentityProvider.values();
+    private static final byte[] BASE64URL = new byte[128];
+
+    static {
+        Arrays.fill(BASE64URL, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64URL[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final JwtService jwtService;
+    private final JwtKeyRing keyRing;
+    private final RevokedTokenRegistry revokedTokens;
+    private final RoleCatalog roleCatalog;
+    private final SecretKey hmacKey;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final VerifiedTokenCache<AccessTokenClaims> cache;
+    private final ObjectPool<Scratch> scratchPool;
+
+    AccessTokenDecoder(
+            JwtService jwtService,
+            JwtKeyRing keyRing,
+            RevokedTokenRegistry revokedTokens,
+            RoleCatalog roleCatalog,
+            @Value("${jwt.cache.enabled:false}") boolean cacheEnabled,
+            @Value("${jwt.cache.maxSize:10000}") int cacheMaxSize
+    ) {
+        this.jwtService = jwtService;
+        this.keyRing = keyRing;
+        this.revokedTokens = revokedTokens;
+        this.roleCatalog = roleCatalog;
+        this.hmacKey = keyRing.hmacKey();
+        this.cache = cacheEnabled ? new VerifiedTokenCache<>(cacheMaxSize) : null;
+        this.scratchPool = new ObjectPool<>(() -> new Scratch(hmacKey));
+    }
+
+    public AccessTokenClaims decode(String token) {
+        return notRevoked(verify(token, true));
+    }
+
+    /**
+     * {@link #decode} without blocking: returns null where decoding would refresh the key ring or reload the role
+     * catalog, and the caller runs {@link #decode} where blocking is allowed.
+     */
+    public AccessTokenClaims decodeIfReady(String token) {
+        try {
+            return notRevoked(verify(token, false));
+        } catch (RequiresBlocking e) {
+            return null;
+        }
+    }
+
+    private AccessTokenClaims verify(String token, boolean mayBlock) {
+        return cache == null
+                ? verifyAndDecode(token, mayBlock)
+                : cache.get(token, t -> verifyAndDecode(t, mayBlock), c -> c.expiresAtEpochSecond() * 1000);
+    }
+
+    private AccessTokenClaims notRevoked(AccessTokenClaims claims) {
+        if (claims.tokenId() != null && revokedTokens.isRevoked(claims.tokenId())) {
+            throw invalid("revoked");
+        }
+        return claims;
+    }
+
+    private AccessTokenClaims verifyAndDecode(String token, boolean mayBlock) {
+        boolean hs256 = token.length() > HS256_HEADER.length()
+                && token.startsWith(HS256_HEADER)
+                && token.charAt(HS256_HEADER.length()) == '.';
+
+        if (hs256 && !keyRing.acceptsSecretTokens()) throw invalid("secret_retired");
+
+        var claims = hs256 ? decodeHs256(token, mayBlock) : decodeWithParser(token, mayBlock);
+
+        if (claims.expiresAtEpochSecond() * 1000 <= System.currentTimeMillis()) {
+            throw invalid("expired");
+        }
+        return claims;
+    }
+
+    private AccessTokenClaims decodeHs256(String token, boolean mayBlock) {
+        int length = token.length();
+        if (length > MAX_TOKEN_LENGTH) throw invalid("too_long");
+
+        int payloadStart = HS256_HEADER.length() + 1;
+        int signatureDot = token.indexOf('.', payloadStart);
+        if (signatureDot < 0 || token.indexOf('.', signatureDot + 1) >= 0) throw invalid("malformed");
+
+        var scratch = scratchPool.borrow();
+        try {
+            byte[] input = scratch.input;
+            for (int i = 0; i < signatureDot; i++) {
+                char c = token.charAt(i);
+                if (c > 127) throw invalid("malformed");
+                input[i] = (byte) c;
+            }
+
+            scratch.mac.update(input, 0, signatureDot);
+            scratch.mac.doFinal(scratch.expected, 0);
+
+            int signatureLength = decodeBase64Url(token, signatureDot + 1, length, scratch.signature);
+            if (signatureLength != HS256_SIGNATURE_LENGTH || !constantTimeEquals(scratch.expected, scratch.signature)) {
+                throw invalid("bad_signature");
+            }
+
+            int payloadLength = decodeBase64Url(token, payloadStart, signatureDot, scratch.payload);
+            if (payloadLength < 0) throw invalid("malformed");
+
+            return parsePayload(scratch.payload, payloadLength, scratch.authorities, mayBlock);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC computation failed", e);
+        } finally {
+            scratchPool.release(scratch);
+        }
+    }
+
+    private AccessTokenClaims parsePayload(byte[] payload, int length, List<GrantedAuthority> authorities, boolean mayBlock) {
+        String tokenId = null;
+        long userId = -1;
+        String email = null;
+        IdentityProvider provider = null;
+        long exp = -1;
+        long roleMask = -1;
+        int catalogVersion = 0;
+        authorities.clear();
+
+        try (JsonParser parser = jsonFactory.createParser(payload, 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) throw invalid("malformed");
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                switch (field) {
+                    case "jti" -> tokenId = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    case "sub" -> userId = value == JsonToken.VALUE_STRING ? parseUserId(parser) : -1;
+                    case "email" -> email = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    case "identityProvider" -> provider = value == JsonToken.VALUE_STRING ? provider(parser) : null;
+                    case "roles" -> readAuthorities(parser, value, authorities);
+                    case "rm" -> roleMask = value == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : -1;
+                    case "rv" -> catalogVersion = value == JsonToken.VALUE_NUMBER_INT ? parser.getIntValue() : 0;
+                    case "exp" -> exp = value == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : -1;
+                    // action and re-auth tokens share the key but must never authenticate a request
+                    case "purpose" -> throw invalid("not_an_access_token");
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw invalid("malformed");
+        }
+
+        if (userId < 0 || email == null || provider == null || exp < 0) throw invalid("missing_claims");
+
+        var granted = roleMask >= 0 ? decodeRoleMask(roleMask, catalogVersion, mayBlock) : AuthoritySets.canonical(authorities);
+        return new AccessTokenClaims(tokenId, userId, email, provider, granted, exp);
+    }
+
+    private AccessTokenClaims decodeWithParser(String token, boolean mayBlock) {
+        if (!mayBlock) {
+            String kid = headerKeyId(token);
+            if (kid != null && !keyRing.hasVerificationKey(kid)) throw RequiresBlocking.INSTANCE;
+        }
+
+        var claims = jwtService.extractClaims(token);
+
+        if (claims.get("purpose") != null) throw invalid("not_an_access_token");
+
+        try {
+            List<GrantedAuthority> granted;
+            if (claims.get("rm") instanceof Number roleMask) {
+                granted = decodeRoleMask(roleMask.longValue(), claims.get("rv", Integer.class), mayBlock);
+            } else {
+                var rolesClaim = claims.get("roles");
+                List<GrantedAuthority> authorities = new ArrayList<>();
+                if (rolesClaim instanceof List<?> rawList) {
+                    for (Object role : rawList) {
+                        if (role instanceof String authority) authorities.add(AuthoritySets.authority(authority));
+                    }
+                }
+                granted = AuthoritySets.canonical(authorities);
+            }
+
+            return new AccessTokenClaims(
+                    claims.getId(),
+                    Long.parseLong(claims.getSubject()),
+                    claims.get("email", String.class),
+                    IdentityProvider.valueOf(claims.get("identityProvider", String.class)),
+                    granted,
+                    claims.getExpiration().getTime() / 1000
+            );
+        } catch (BusinessException | RequiresBlocking e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw invalid("missing_claims");
+        }
+    }
+
+    private List<GrantedAuthority> decodeRoleMask(long roleMask, int catalogVersion, boolean mayBlock) {
+        if (!mayBlock && !roleCatalog.knows(catalogVersion)) throw RequiresBlocking.INSTANCE;
+
+        var authorities = roleCatalog.decode(roleMask, catalogVersion);
+        if (authorities == null) throw invalid("unknown_role_catalog");
+        return authorities;
+    }
+
+    // kid of a header outside the fast path; null if there is none or it does not parse, which the parser rejects
+    private String headerKeyId(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot > MAX_TOKEN_LENGTH) return null;
+
+        try (JsonParser parser = jsonFactory.createParser(Base64.getUrlDecoder().decode(token.substring(0, dot)))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("kid".equals(field)) return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                parser.skipChildren();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+        return null;
+    }
+
+    private static long parseUserId(JsonParser parser) throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        if (length == 0 || length > 18) return -1;
+
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static IdentityProvider provider(JsonParser parser) throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+
+        for (var provider : PROVIDERS) {
+            if (regionEquals(provider.name(), chars, offset, length)) return provider;
+        }
+        return null;
+    }
+
+    private static boolean regionEquals(String expected, char[] chars, int offset, int length) {
+        if (expected.length() != length) return false;
+
+        for (int i = 0; i < length; i++) {
+            if (expected.charAt(i) != chars[offset + i]) return false;
+        }
+        return true;
+    }
+
+    private static void readAuthorities(JsonParser parser, JsonToken value, List<GrantedAuthority> authorities) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.VALUE_STRING) {
+            authorities.add(AuthoritySets.authority(
+                    parser.getTextCharacters(),
+                    parser.getTextOffset(),
+                    parser.getTextLength()
+            ));
+        }
+        if (parser.currentToken() != JsonToken.END_ARRAY) throw invalid("malformed");
+    }
+
+    /**
+     * Decodes unpadded base64url from {@code source[from, to)} into {@code out}.
+     * Returns the number of bytes written, or -1 if the input is invalid, not canonical or does not fit.
+     */
+    private static int decodeBase64Url(String source, int from, int to, byte[] out) {
+        int length = to - from;
+        if (length % 4 == 1 || (length * 3) / 4 > out.length) return -1;
+
+        int written = 0;
+        int buffer = 0;
+        int bits = 0;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? BASE64URL[c] : -1;
+            if (value < 0) return -1;
+
+            buffer = (buffer << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                out[written++] = (byte) (buffer >> bits);
+                buffer &= (1 << bits) - 1;
+            }
+        }
+        // leftover bits must be zero, or one token would have several encodings that all verify
+        return buffer == 0 ? written : -1;
+    }
+
+    private static boolean constantTimeEquals(byte[] expected, byte[] actual) {
+        int diff = 0;
+        for (int i = 0; i < HS256_SIGNATURE_LENGTH; i++) {
+            diff |= expected[i] ^ actual[i];
+        }
+        return diff == 0;
+    }
+
+    private static BusinessException invalid(String reason) {
+        log.debug("Access token rejected reason={}", reason);
+        return new BusinessException(AuthErrorCode.INVALID_TOKEN, "Invalid or tampered token");
+    }
+
+    @Override
+    public String metricsName() {
+        return "jwt.verifiedTokenCache";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        return cache != null ? cache.stats() : Map.of("enabled", false);
+    }
+
+    // thrown where decoding would block although the caller cannot; never escapes decodeIfReady
+    private static final class RequiresBlocking extends RuntimeException {
+        static final RequiresBlocking INSTANCE = new RequiresBlocking();
+
+        private RequiresBlocking() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class Scratch {
+        final Mac mac;
+        final byte[] input = new byte[MAX_TOKEN_LENGTH];
+        final byte[] payload = new byte[MAX_TOKEN_LENGTH];
+        final byte[] signature = new byte[64];
+        final byte[] expected = new byte[HS256_SIGNATURE_LENGTH];
+        final List<GrantedAuthority> authorities = new ArrayList<>(4);
+
+        Scratch(SecretKey key) {
+            try {
+                mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        }
+    }
+}
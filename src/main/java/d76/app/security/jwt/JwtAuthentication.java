@@ -0,0 +1,83 @@
+package d76.app.security.jwt;
+
+import d76.app.security.principal.UserPrincipal;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import java.io.Serial;
+import java.util.Collection;
+
+/**
+ * Authentication restored from a verified access token.
+ * <p>
+ * Authorization only needs {@link #getAuthorities()}, which comes straight from the decoded claims.
+ * The {@link UserPrincipal} and the web details are built on first access, so requests whose
+ * controllers never ask for the principal don't pay for them.
+ */
+public class JwtAuthentication implements Authentication {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final AccessTokenClaims claims;
+    private final String remoteAddress;
+
+    private transient UserPrincipal principal;
+    private transient WebAuthenticationDetails details;
+
+    public JwtAuthentication(AccessTokenClaims claims, String remoteAddress) {
+        this.claims = claims;
+        this.remoteAddress = remoteAddress;
+    }
+
+    public AccessTokenClaims getClaims() {
+        return claims;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return claims.authorities();
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getDetails() {
+        if (details == null) {
+            details = new WebAuthenticationDetails(remoteAddress, null);
+        }
+        return details;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        if (principal == null) {
+            principal = UserPrincipal.fromJwt(
+                    claims.userId(),
+                    claims.email(),
+                    claims.identityProvider(),
+                    claims.authorities()
+            );
+        }
+        return principal;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return true;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        throw new IllegalArgumentException("JwtAuthentication is immutable, clear the SecurityContext instead");
+    }
+
+    @Override
+    public String getName() {
+        return claims.email();
+    }
+}
@@ -2,70 +2,88 @@ package d76.app.security.jwt;
 
 import d76.app.auth.exception.AuthErrorCode;
 import d76.app.core.exception.BusinessException;
+import d76.app.security.jwt.key.JwtKeyRing;
 import d76.app.security.jwt.model.JwtPurpose;
 import d76.app.security.principal.UserPrincipal;
+import d76.app.user.service.RoleCatalog;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
-import java.time.Instant;
 import java.util.Date;
 import java.util.List;
-import java.util.UUID;
 
 @Slf4j
 @Service
 public class JwtService {
 
-    private final String secret;
+    private final JwtParser parser;
+    private final TokenMinter minter;
+    private final RoleCatalog roleCatalog;
+    private final boolean compactRoles;
+
     private final long accessTokenTTLSeconds;
     private final long actionTokenTTLSeconds;
     private final long reAuthTokenTTLSeconds;
 
     JwtService(
-            @Value("${jwt.secret}") String secret,
+            JwtKeyRing keyRing,
+            RoleCatalog roleCatalog,
+            @Value("${jwt.compactRoles.enabled:false}") boolean compactRoles,
             @Value("${jwt.access.tokenTTL}") long accessTokenTTLSeconds,
             @Value("${jwt.action.tokenTTL}") long actionTokenTTLSeconds,
             @Value("${jwt.reAuth.tokenTTL}") long reAuthTokenTTLSeconds
     ) {
-        this.secret = secret;
+        this.parser = Jwts.parser()
+                .keyLocator(keyRing.locator())
+                .build();
+        this.minter = new TokenMinter(keyRing);
+        this.roleCatalog = roleCatalog;
+        this.compactRoles = compactRoles;
+
         this.accessTokenTTLSeconds = accessTokenTTLSeconds;
         this.actionTokenTTLSeconds = actionTokenTTLSeconds;
         this.reAuthTokenTTLSeconds = reAuthTokenTTLSeconds;
     }
 
-    private SecretKey getKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
-    }
-
     /**
      * ACCESS TOKEN
      */
     public String generateAccessToken(UserPrincipal principal) {
 
-        String jti = UUID.randomUUID().toString();
+        if (compactRoles) {
+            long roleMask = roleCatalog.encode(principal.getAuthorities());
+
+            // roles outside the catalog fall back to the named form
+            if (roleMask >= 0) {
+                return minter.accessToken(
+                        principal.getUserId(),
+                        principal.getUsername(),
+                        principal.getIdentityProvider().name(),
+                        roleMask,
+                        roleCatalog.version(),
+                        accessTokenTTLSeconds
+                );
+            }
+        }
 
         List<String> role = principal.getAuthorities()
                 .stream()
                 .map(GrantedAuthority::getAuthority)
                 .toList();
 
-        return Jwts.builder()
-                .id(jti)
-                .subject(String.valueOf(principal.getUserId()))
-                .claim("email", principal.getUsername())
-                .claim("identityProvider", principal.getIdentityProvider().name())
-                .claim("roles", role)
-                .issuedAt(new Date())
-                .expiration(Date.from(Instant.now().plusSeconds(accessTokenTTLSeconds)))
-                .signWith(getKey(), Jwts.SIG.HS256)
-                .compact();
+        return minter.accessToken(
+                principal.getUserId(),
+                principal.getUsername(),
+                principal.getIdentityProvider().name(),
+                role,
+                accessTokenTTLSeconds
+        );
     }
 
     /**
@@ -73,18 +91,7 @@ public class JwtService {
      */
 
     public String generateActionToken(String email, JwtPurpose purpose, String authProvider) {
-
-        String jti = UUID.randomUUID().toString();
-
-        return Jwts.builder()
-                .id(jti)
-                .subject(email)
-                .claim("purpose", purpose.name())
-                .claim("identityProvider", authProvider)
-                .issuedAt(new Date())
-                .expiration(Date.from(Instant.now().plusSeconds(actionTokenTTLSeconds))) // 5 mins
-                .signWith(getKey(), Jwts.SIG.HS256)
-                .compact();
+        return minter.purposeToken(email, purpose, authProvider, actionTokenTTLSeconds); // 5 mins
     }
 
     public void assertActionTokenValid(String token, JwtPurpose expectedPurpose) {
@@ -110,15 +117,7 @@ public class JwtService {
      * RE_AUTH TOKEN
      */
     public String generateReAuthToken(String email, JwtPurpose jwtPurpose) {
-        return Jwts
-                .builder()
-                .id(UUID.randomUUID().toString())
-                .subject(email)
-                .claim("purpose", jwtPurpose.name())
-                .issuedAt(new Date())
-                .expiration(Date.from(Instant.now().plusSeconds(reAuthTokenTTLSeconds))) // 3 mins
-                .signWith(getKey(), Jwts.SIG.HS256)
-                .compact();
+        return minter.purposeToken(email, jwtPurpose, null, reAuthTokenTTLSeconds); // 3 mins
     }
 
     public void assertReAuthTokenValid(String email, String token, JwtPurpose expectedPurpose) {
@@ -149,9 +148,7 @@ public class JwtService {
      */
     public Claims extractClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getKey())
-                    .build()
+            return parser
                     .parseSignedClaims(token)
                     .getPayload();
 
@@ -0,0 +1,38 @@
+package d76.app.security.jwt;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Small lock-free pool for per-operation scratch state (Mac instances, buffers).
+ * Slots are used instead of ThreadLocals so reuse also works on virtual threads;
+ * when every slot is taken a fresh instance is created and dropped after use.
+ */
+final class ObjectPool<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final Supplier<T> factory;
+    private final int mask;
+
+    ObjectPool(Supplier<T> factory) {
+        this.factory = factory;
+        this.slots = new AtomicReferenceArray<>(Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4));
+        this.mask = slots.length() - 1;
+    }
+
+    T borrow() {
+        int start = (int) Thread.currentThread().threadId() & mask;
+        for (int i = 0; i <= mask; i++) {
+            T pooled = slots.getAndSet((start + i) & mask, null);
+            if (pooled != null) return pooled;
+        }
+        return factory.get();
+    }
+
+    void release(T pooled) {
+        int start = (int) Thread.currentThread().threadId() & mask;
+        for (int i = 0; i <= mask; i++) {
+            if (slots.compareAndSet((start + i) & mask, null, pooled)) return;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package d76.app.security.jwt;
+
+import d76.app.security.jwt.key.JwtKeyRing;
+import d76.app.security.jwt.key.SigningKey;
+import d76.app.security.jwt.model.JwtPurpose;
+
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes JWS compact tokens without going through {@code Jwts.builder()}.
+ * <p>
+ * The header is encoded once per signing key, the constant parts of each token kind are
+ * pre-built templates, ids are time-ordered UUIDs drawn from {@link ThreadLocalRandom} instead of
+ * the shared SecureRandom behind {@link UUID#randomUUID()}, and HS256 signing runs on pooled
+ * {@link Mac} instances. The output is a standard JWS with the same claims JJWT used to write,
+ * so both JJWT and {@link AccessTokenDecoder} parse it.
+ */
+final class TokenMinter {
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Map<JwtPurpose, String> PURPOSE_TEMPLATES = new EnumMap<>(JwtPurpose.class);
+
+    static {
+        for (var purpose : JwtPurpose.values()) {
+            PURPOSE_TEMPLATES.put(purpose, ",\"purpose\":\"" + purpose.name() + "\"");
+        }
+    }
+
+    private final JwtKeyRing keyRing;
+    private final ObjectPool<Mac> macPool;
+
+    private volatile EncodedHeader header;
+
+    TokenMinter(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+        this.macPool = new ObjectPool<>(() -> {
+            try {
+                var mac = Mac.getInstance("HmacSHA256");
+                mac.init(keyRing.hmacKey());
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        });
+    }
+
+    String accessToken(long userId, String email, String identityProvider, List<String> roles, long ttlSeconds) {
+        var json = accessTokenPrefix(userId, email, identityProvider);
+
+        json.append(",\"roles\":[");
+        for (int i = 0; i < roles.size(); i++) {
+            if (i > 0) json.append(',');
+            appendString(json, roles.get(i));
+        }
+        json.append(']');
+
+        return sign(appendTimes(json, ttlSeconds));
+    }
+
+    /**
+     * Access token with roles as a {@code RoleCatalog} bitmask ({@code rm}) and the catalog version ({@code rv}).
+     */
+    String accessToken(long userId, String email, String identityProvider, long roleMask, int catalogVersion, long ttlSeconds) {
+        var json = accessTokenPrefix(userId, email, identityProvider)
+                .append(",\"rm\":").append(roleMask)
+                .append(",\"rv\":").append(catalogVersion);
+
+        return sign(appendTimes(json, ttlSeconds));
+    }
+
+    private static StringBuilder accessTokenPrefix(long userId, String email, String identityProvider) {
+        var json = new StringBuilder(192)
+                .append("{\"jti\":\"").append(timeOrderedId())
+                .append("\",\"sub\":\"").append(userId)
+                .append("\",\"email\":");
+        appendString(json, email);
+        json.append(",\"identityProvider\":");
+        appendString(json, identityProvider);
+        return json;
+    }
+
+    private static StringBuilder appendTimes(StringBuilder json, long ttlSeconds) {
+        long now = System.currentTimeMillis() / 1000;
+        return json.append(",\"iat\":").append(now)
+                .append(",\"exp\":").append(now + ttlSeconds)
+                .append('}');
+    }
+
+    /**
+     * Action and re-auth tokens; {@code identityProvider} is omitted when null, as JJWT did.
+     */
+    String purposeToken(String subject, JwtPurpose purpose, String identityProvider, long ttlSeconds) {
+        var json = new StringBuilder(160)
+                .append("{\"jti\":\"").append(timeOrderedId())
+                .append("\",\"sub\":");
+        appendString(json, subject);
+        json.append(PURPOSE_TEMPLATES.get(purpose));
+
+        if (identityProvider != null) {
+            json.append(",\"identityProvider\":");
+            appendString(json, identityProvider);
+        }
+
+        return sign(appendTimes(json, ttlSeconds));
+    }
+
+    private String sign(StringBuilder payloadJson) {
+        var signingKey = keyRing.activeKey();
+
+        String signingInput = encodedHeader(signingKey) + '.'
+                + BASE64URL.encodeToString(payloadJson.toString().getBytes(StandardCharsets.UTF_8));
+
+        byte[] signature = signature(signingKey, signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + '.' + BASE64URL.encodeToString(signature);
+    }
+
+    private byte[] signature(SigningKey signingKey, byte[] input) {
+        if (!signingKey.algorithm().isAsymmetric()) {
+            var mac = macPool.borrow();
+            try {
+                return mac.doFinal(input);
+            } finally {
+                macPool.release(mac);
+            }
+        }
+
+        try {
+            var signer = Signature.getInstance(signingKey.algorithm().jcaAlgorithm());
+            signer.initSign((PrivateKey) signingKey.key());
+            signer.update(input);
+            return signer.sign();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Token signing failed for kid=" + signingKey.kid(), e);
+        }
+    }
+
+    private String encodedHeader(SigningKey signingKey) {
+        var current = header;
+        if (current != null && current.key() == signingKey) return current.encoded();
+
+        var json = new StringBuilder("{\"alg\":\"").append(signingKey.algorithm().jwaName()).append('"');
+        if (signingKey.kid() != null) {
+            json.append(",\"kid\":");
+            appendString(json, signingKey.kid());
+        }
+        json.append('}');
+
+        var encoded = BASE64URL.encodeToString(json.toString().getBytes(StandardCharsets.UTF_8));
+        header = new EncodedHeader(signingKey, encoded);
+        return encoded;
+    }
+
+    /**
+     * UUIDv7 layout: 48 bits of epoch millis, then random bits from the caller's ThreadLocalRandom.
+     */
+    static String timeOrderedId() {
+        var random = ThreadLocalRandom.current();
+        long msb = (System.currentTimeMillis() << 16) | 0x7000L | (random.nextInt() & 0x0FFFL);
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb).toString();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) json.append(String.format("\\u%04x", (int) c));
+                    else json.append(c);
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    private record EncodedHeader(SigningKey key, String encoded) {
+    }
+}
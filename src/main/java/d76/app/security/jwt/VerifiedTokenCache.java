@@ -0,0 +1,130 @@
+package d76.app.security.jwt;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of tokens that already passed signature verification.
+ * <p>
+ * Entries are keyed by the SHA-256 digest of the raw token (the token itself is never retained)
+ * and are dropped once the token's {@code exp} is reached, so a hit can never extend the lifetime
+ * of a token beyond what the signature allowed. Digests are also indexed by the second they expire in,
+ * so a full cache drops what has expired, and then what expires soonest, without scanning the entries.
+ */
+public class VerifiedTokenCache<V> {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final ConcurrentHashMap<TokenDigest, Entry<V>> entries = new ConcurrentHashMap<>();
+    // expiry second -> digests cached with an exp in it; only touched on misses, under its own monitor
+    private final TreeMap<Long, ArrayDeque<TokenDigest>> byExpiry = new TreeMap<>();
+    private final int maxSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public VerifiedTokenCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the cached value for the token, or verifies it with {@code verifier} and caches the result.
+     * {@code expiresAt} maps the verified value to its expiry in epoch millis.
+     */
+    public V get(String token, Function<String, V> verifier, Function<V, Long> expiresAt) {
+        var digest = TokenDigest.of(token);
+        long now = System.currentTimeMillis();
+
+        var entry = entries.get(digest);
+        if (entry != null) {
+            if (entry.expiresAtMillis() > now) {
+                hits.increment();
+                return entry.value();
+            }
+            entries.remove(digest, entry);
+        }
+
+        misses.increment();
+        V value = verifier.apply(token);
+
+        long exp = expiresAt.apply(value);
+        if (exp > now) {
+            synchronized (byExpiry) {
+                makeRoom(now);
+                entries.put(digest, new Entry<>(value, exp));
+                byExpiry.computeIfAbsent(exp / 1000, second -> new ArrayDeque<>()).add(digest);
+            }
+        }
+        return value;
+    }
+
+    public void invalidate(String token) {
+        entries.remove(TokenDigest.of(token));
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRatio", total == 0 ? 0.0 : (double) hitCount / total);
+        return stats;
+    }
+
+    // caller holds the byExpiry monitor; every digest is polled once, so the work is constant per insert on average
+    private void makeRoom(long now) {
+        // seconds that have fully passed; a digest cached again since carries a later exp and stays
+        var passed = byExpiry.headMap(now / 1000);
+        for (var digests : passed.values()) {
+            for (var digest : digests) {
+                var entry = entries.get(digest);
+                if (entry != null && entry.expiresAtMillis() <= now && entries.remove(digest, entry)) {
+                    evictions.increment();
+                }
+            }
+        }
+        passed.clear();
+
+        // still full: drop what expires soonest, entries are only an optimisation
+        while (entries.size() >= maxSize && !byExpiry.isEmpty()) {
+            var soonest = byExpiry.firstEntry().getValue();
+            var victim = soonest.poll();
+            if (soonest.isEmpty()) byExpiry.pollFirstEntry();
+            if (victim != null && entries.remove(victim) != null) evictions.increment();
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAtMillis) {
+    }
+
+    private record TokenDigest(long a, long b, long c, long d) {
+
+        static TokenDigest of(String token) {
+            var md = SHA_256.get();
+            var buf = ByteBuffer.wrap(md.digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new TokenDigest(buf.getLong(), buf.getLong(), buf.getLong(), buf.getLong());
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package d76.app.security.jwt.key;
+
+import java.util.List;
+
+public record JwksRing(List<PublishedKey> keys) {
+}
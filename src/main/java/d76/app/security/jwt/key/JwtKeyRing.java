@@ -0,0 +1,283 @@
+package d76.app.security.jwt.key;
+
+import d76.app.core.service.CacheService;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.security.InvalidKeyException;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Signing and verification keys for every token issued by {@code JwtService}.
+ * <p>
+ * With {@code jwt.signing.algorithm=HS256} (the default) the ring only holds {@code jwt.secret}.
+ * With ES256 or EdDSA each node generates its own key pair, signs with it for
+ * {@code jwt.signing.rotationSeconds} and then rotates. Public keys are published to a shared ring
+ * through {@link CacheService} under their {@code kid}, so any node (or resource server reading the
+ * JWKS) can verify tokens signed by any other node. The ring is updated by compare-and-set, so nodes
+ * publishing at the same time never drop each other's keys. A retired key stays in the ring until every
+ * token it could have signed has expired. Tokens signed with {@code jwt.secret} are retired the same way:
+ * they verify for the longest token TTL after startup, so the ones issued before the switch run out, and
+ * afterwards only with {@code jwt.signing.acceptSecretTokens=true}.
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+
+    private static final String RING_KEY = "jwt:jwks:ring";
+    private static final long UNKNOWN_KID_REFRESH_INTERVAL_MILLIS = 5_000;
+    private static final int MAX_PUBLISH_ATTEMPTS = 10;
+
+    private final CacheService cacheService;
+    private final SigningAlgorithm algorithm;
+    private final SecretKey hmacKey;
+    private final Duration rotationInterval;
+    private final Duration verificationWindow;
+    private final boolean acceptSecretTokens;
+    private final Instant secretTokensAcceptedUntil;
+
+    private final Map<String, VerificationKey> verificationKeys = new ConcurrentHashMap<>();
+    private final AtomicLong lastRingRefresh = new AtomicLong();
+    private final LocatorAdapter<Key> locator = new LocatorAdapter<>() {
+        @Override
+        protected Key locate(ProtectedHeader header) {
+            return verificationKey(header.getKeyId());
+        }
+    };
+
+    private volatile SigningKey activeKey;
+    private volatile Map<String, Object> jwks = Map.of("keys", List.of());
+
+    JwtKeyRing(
+            CacheService cacheService,
+            @Value("${jwt.secret}") String secret,
+            @Value("${jwt.signing.algorithm:HS256}") String algorithm,
+            @Value("${jwt.signing.rotationSeconds:86400}") long rotationSeconds,
+            @Value("${jwt.signing.overlapSeconds:3600}") long overlapSeconds,
+            @Value("${jwt.signing.acceptSecretTokens:false}") boolean acceptSecretTokens,
+            @Value("${jwt.access.tokenTTL}") long accessTokenTTLSeconds,
+            @Value("${jwt.action.tokenTTL}") long actionTokenTTLSeconds,
+            @Value("${jwt.reAuth.tokenTTL}") long reAuthTokenTTLSeconds
+    ) {
+        this.cacheService = cacheService;
+        this.algorithm = SigningAlgorithm.fromConfig(algorithm);
+        this.hmacKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.rotationInterval = Duration.ofSeconds(rotationSeconds);
+
+        // a retired key must outlive every token it signed
+        long longestTokenTTL = Math.max(accessTokenTTLSeconds, Math.max(actionTokenTTLSeconds, reAuthTokenTTLSeconds));
+        this.verificationWindow = Duration.ofSeconds(Math.max(overlapSeconds, longestTokenTTL));
+        this.acceptSecretTokens = acceptSecretTokens;
+        this.secretTokensAcceptedUntil = Instant.now().plusSeconds(longestTokenTTL);
+
+        this.activeKey = this.algorithm.isAsymmetric()
+                ? newKey()
+                : new SigningKey(null, SigningAlgorithm.HS256, hmacKey, Instant.now());
+    }
+
+    public SigningKey activeKey() {
+        return activeKey;
+    }
+
+    public SecretKey hmacKey() {
+        return hmacKey;
+    }
+
+    public LocatorAdapter<Key> locator() {
+        return locator;
+    }
+
+    /**
+     * Whether tokens signed with {@code jwt.secret} (HS256, no kid) still verify.
+     */
+    public boolean acceptsSecretTokens() {
+        return !algorithm.isAsymmetric() || acceptSecretTokens || Instant.now().isBefore(secretTokensAcceptedUntil);
+    }
+
+    /**
+     * Whether a token signed with {@code kid} verifies without refreshing the ring from the cache.
+     */
+    public boolean hasVerificationKey(String kid) {
+        return verificationKeys.containsKey(kid);
+    }
+
+    /**
+     * JWKS document ({@code {"keys": [...]}}) with every public key that may still verify a live token.
+     */
+    public Map<String, Object> jwks() {
+        return jwks;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void publishOnStartup() {
+        if (algorithm.isAsymmetric()) {
+            publish(activeKey);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.signing.rotationCheckMillis:60000}")
+    void rotateIfDue() {
+        if (!algorithm.isAsymmetric()) return;
+
+        if (Instant.now().isAfter(activeKey.activatedAt().plus(rotationInterval))) {
+            var next = newKey();
+            publish(next);
+            activeKey = next;
+            log.info("Rotated JWT signing key kid={} alg={}", next.kid(), algorithm.jwaName());
+        }
+        refreshRing();
+    }
+
+    private Key verificationKey(String kid) {
+        if (kid == null) {
+            // tokens issued with jwt.secret carry no kid
+            if (!acceptsSecretTokens()) throw new InvalidKeyException("Tokens signed with jwt.secret are no longer accepted");
+            return hmacKey;
+        }
+
+        var key = verificationKeys.get(kid);
+        if (key == null && refreshAllowed()) {
+            refreshRing();
+            key = verificationKeys.get(kid);
+        }
+
+        if (key == null || key.notAfter().isBefore(Instant.now())) {
+            throw new InvalidKeyException("Unknown or retired signing key id: " + kid);
+        }
+        return key.publicKey();
+    }
+
+    private boolean refreshAllowed() {
+        long now = System.currentTimeMillis();
+        long last = lastRingRefresh.get();
+        return now - last >= UNKNOWN_KID_REFRESH_INTERVAL_MILLIS && lastRingRefresh.compareAndSet(last, now);
+    }
+
+    private SigningKey newKey() {
+        var keyPair = algorithm.generateKeyPair();
+        var now = Instant.now();
+
+        String kid = Jwks.builder()
+                .key(keyPair.getPublic())
+                .idFromThumbprint()
+                .build()
+                .getId();
+
+        verificationKeys.put(kid, new VerificationKey(keyPair.getPublic(), algorithm, now.plus(rotationInterval).plus(verificationWindow)));
+        rebuildJwks();
+        return new SigningKey(kid, algorithm, keyPair.getPrivate(), now);
+    }
+
+    private void publish(SigningKey signingKey) {
+        var own = verificationKeys.get(signingKey.kid());
+        var published = new PublishedKey(
+                signingKey.kid(),
+                signingKey.algorithm(),
+                Base64.getEncoder().encodeToString(own.publicKey().getEncoded()),
+                own.notAfter()
+        );
+
+        try {
+            for (int attempt = 1; attempt <= MAX_PUBLISH_ATTEMPTS; attempt++) {
+                if (tryPublish(published)) return;
+            }
+            log.warn("Gave up publishing JWT signing key kid={} after {} conflicting updates", signingKey.kid(), MAX_PUBLISH_ATTEMPTS);
+        } catch (RuntimeException e) {
+            // other nodes pick the key up on the next successful publish or refresh
+            log.warn("Failed to publish JWT signing key kid={}: {}", signingKey.kid(), e.getMessage());
+        }
+    }
+
+    // one read-modify-write of the shared ring; false if another node changed it in between
+    private boolean tryPublish(PublishedKey published) {
+        var now = Instant.now();
+        var current = cacheService.get(RING_KEY, JwksRing.class);
+
+        List<PublishedKey> keys = new ArrayList<>(current.map(JwksRing::keys).orElse(List.of()));
+        keys.removeIf(k -> k.kid().equals(published.kid()) || k.notAfter().isBefore(now));
+        keys.add(published);
+
+        long ttlSeconds = keys.stream()
+                .mapToLong(k -> Duration.between(now, k.notAfter()).toSeconds())
+                .max()
+                .orElse(verificationWindow.toSeconds());
+
+        var next = new JwksRing(keys);
+        return current.isPresent()
+                ? cacheService.replace(RING_KEY, current.get(), next, ttlSeconds, TimeUnit.SECONDS)
+                : cacheService.putIfAbsent(RING_KEY, next, ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    private void refreshRing() {
+        lastRingRefresh.set(System.currentTimeMillis());
+        var now = Instant.now();
+
+        try {
+            for (var published : readRing()) {
+                if (published.notAfter().isBefore(now) || verificationKeys.containsKey(published.kid())) continue;
+
+                verificationKeys.put(published.kid(), new VerificationKey(
+                        decodePublicKey(published),
+                        published.algorithm(),
+                        published.notAfter()
+                ));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh JWT key ring: {}", e.getMessage());
+        }
+
+        verificationKeys.values().removeIf(k -> k.notAfter().isBefore(now));
+        rebuildJwks();
+    }
+
+    private List<PublishedKey> readRing() {
+        return cacheService.get(RING_KEY, JwksRing.class)
+                .map(JwksRing::keys)
+                .orElse(List.of());
+    }
+
+    private void rebuildJwks() {
+        List<Map<String, Object>> keys = new ArrayList<>();
+        verificationKeys.forEach((kid, key) -> keys.add(new LinkedHashMap<>(
+                Jwks.builder()
+                        .key(key.publicKey())
+                        .id(kid)
+                        .algorithm(key.algorithm().jwaName())
+                        .publicKeyUse("sig")
+                        .build()
+        )));
+        keys.sort(Comparator.comparing(k -> String.valueOf(k.get("kid"))));
+        jwks = Map.of("keys", List.copyOf(keys));
+    }
+
+    private static PublicKey decodePublicKey(PublishedKey published) {
+        try {
+            return KeyFactory.getInstance(published.algorithm().keyFactoryAlgorithm())
+                    .generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(published.publicKey())));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid published key kid=" + published.kid(), e);
+        }
+    }
+
+    private record VerificationKey(PublicKey publicKey, SigningAlgorithm algorithm, Instant notAfter) {
+    }
+}
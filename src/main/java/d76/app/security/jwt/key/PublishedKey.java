@@ -0,0 +1,16 @@
+package d76.app.security.jwt.key;
+
+import java.time.Instant;
+
+/**
+ * Public half of a signing key as shared between nodes.
+ * {@code publicKey} is the Base64 X.509 encoding, {@code notAfter} is the last instant a token
+ * signed with this key can still be valid.
+ */
+public record PublishedKey(
+        String kid,
+        SigningAlgorithm algorithm,
+        String publicKey,
+        Instant notAfter
+) {
+}
@@ -0,0 +1,64 @@
+package d76.app.security.jwt.key;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+
+import java.security.KeyPair;
+
+public enum SigningAlgorithm {
+    HS256(Jwts.SIG.HS256, null, "HmacSHA256"),
+    ES256(Jwts.SIG.ES256, "EC", "SHA256withECDSAinP1363Format"),
+    EDDSA(Jwts.SIG.EdDSA, "EdDSA", "Ed25519");
+
+    private final SecureDigestAlgorithm<?, ?> jwsAlgorithm;
+    private final String keyFactoryAlgorithm;
+    private final String jcaAlgorithm;
+
+    SigningAlgorithm(SecureDigestAlgorithm<?, ?> jwsAlgorithm, String keyFactoryAlgorithm, String jcaAlgorithm) {
+        this.jwsAlgorithm = jwsAlgorithm;
+        this.keyFactoryAlgorithm = keyFactoryAlgorithm;
+        this.jcaAlgorithm = jcaAlgorithm;
+    }
+
+    public static SigningAlgorithm fromConfig(String value) {
+        return value.equalsIgnoreCase("EdDSA") ? EDDSA : valueOf(value.toUpperCase());
+    }
+
+    public SecureDigestAlgorithm<?, ?> jwsAlgorithm() {
+        return jwsAlgorithm;
+    }
+
+    /**
+     * The JWA name as written into the token header and the JWKS {@code alg} member.
+     */
+    public String jwaName() {
+        return jwsAlgorithm.getId();
+    }
+
+    /**
+     * JCA name producing the raw JWS signature bytes (P1363 format for ECDSA, as JWS requires).
+     */
+    public String jcaAlgorithm() {
+        return jcaAlgorithm;
+    }
+
+    public boolean isAsymmetric() {
+        return keyFactoryAlgorithm != null;
+    }
+
+    String keyFactoryAlgorithm() {
+        return keyFactoryAlgorithm;
+    }
+
+    KeyPair generateKeyPair() {
+        if (!isAsymmetric())
+            throw new IllegalStateException(name() + " does not use key pairs");
+
+        // JJWT defaults EdDSA to Ed448; Ed25519 is what resource servers widely support
+        return this == EDDSA
+                ? Jwks.CRV.Ed25519.keyPair().build()
+                : ((SignatureAlgorithm) jwsAlgorithm).keyPair().build();
+    }
+}
@@ -0,0 +1,16 @@
+package d76.app.security.jwt.key;
+
+import java.security.Key;
+import java.time.Instant;
+
+/**
+ * The key this node currently signs with. {@code kid} is null for the legacy HS256 secret,
+ * which keeps HS256 tokens byte-identical to the ones issued before the key ring existed.
+ */
+public record SigningKey(
+        String kid,
+        SigningAlgorithm algorithm,
+        Key key,
+        Instant activatedAt
+) {
+}
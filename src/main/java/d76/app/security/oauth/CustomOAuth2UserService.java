@@ -2,6 +2,7 @@ package d76.app.security.oauth;
 
 import d76.app.auth.model.IdentityProvider;
 import d76.app.security.principal.UserPrincipal;
+import d76.app.user.service.RoleCatalog;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.jspecify.annotations.Nullable;
@@ -24,6 +25,7 @@ public class CustomOAuth2UserService implements OAuth2UserService<OAuth2UserRequ
 
     private final RestClient restClient;
     private final OAuthAccountVerifier authAccountVerifier;
+    private final RoleCatalog roleCatalog;
 
     @Override
     public OAuth2User loadUser(OAuth2UserRequest userRequest) throws OAuth2AuthenticationException {
@@ -39,7 +41,7 @@ public class CustomOAuth2UserService implements OAuth2UserService<OAuth2UserRequ
         var attributes = new HashMap<>(oAuth2User.getAttributes());
         attributes.put("email", email);
 
-        return UserPrincipal.fromOAuth2(user, IdentityProvider.GITHUB, attributes);
+        return UserPrincipal.fromOAuth2(user, roleCatalog.authorities(user.roles()), IdentityProvider.GITHUB, attributes);
     }
 
     @Nullable
@@ -2,6 +2,7 @@ package d76.app.security.oauth;
 
 import d76.app.auth.model.IdentityProvider;
 import d76.app.security.principal.UserPrincipal;
+import d76.app.user.service.RoleCatalog;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserRequest;
 import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserService;
@@ -14,6 +15,7 @@ import org.springframework.stereotype.Service;
 public class CustomOidcUserService extends OidcUserService {
 
     private final OAuthAccountVerifier accountVerifier;
+    private final RoleCatalog roleCatalog;
 
     @Override
     public OidcUser loadUser(OidcUserRequest userRequest) throws OAuth2AuthenticationException {
@@ -25,7 +27,7 @@ public class CustomOidcUserService extends OidcUserService {
 
         var user = accountVerifier.verifyUser(email, provider, IdentityProvider.GOOGLE);
 
-        return UserPrincipal.fromOidc(user, IdentityProvider.GOOGLE, oidcUser.getAttributes(),
+        return UserPrincipal.fromOidc(user, roleCatalog.authorities(user.roles()), IdentityProvider.GOOGLE, oidcUser.getAttributes(),
                 oidcUser.getIdToken(), oidcUser.getUserInfo());
     }
 }
@@ -3,7 +3,7 @@ package d76.app.security.oauth;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import d76.app.auth.model.IdentityProvider;
-import d76.app.user.entity.Users;
+import d76.app.user.model.UserSnapshot;
 import d76.app.user.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
@@ -20,7 +20,7 @@ public class OAuthAccountVerifier {
     private final UserService userService;
     private final ObjectMapper objectMapper;
 
-    Users verifyUser(String email, String provider, IdentityProvider expectedProvider) {
+    UserSnapshot verifyUser(String email, String provider, IdentityProvider expectedProvider) {
 
         if (email == null) {
             throw oauthError(
@@ -31,7 +31,7 @@ public class OAuthAccountVerifier {
             );
         }
 
-        Users user = userService.findUserByEmail(email).orElseThrow(() ->
+        UserSnapshot user = userService.findSnapshotByEmail(email).orElseThrow(() ->
                 oauthError(
                         "user_not_registered",
                         provider,
@@ -40,7 +40,7 @@ public class OAuthAccountVerifier {
                 )
         );
 
-        if (!user.getIdentityProviders().contains(expectedProvider)) {
+        if (!user.hasProvider(expectedProvider)) {
             throw oauthError(
                     "auth_provider_not_linked",
                     provider,
@@ -0,0 +1,89 @@
+package d76.app.security.principal;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical, shared {@link GrantedAuthority} instances and immutable authority lists.
+ * A handful of role combinations cover every user, so the same list instance is handed out
+ * for every request instead of building new authority objects each time.
+ */
+public final class AuthoritySets {
+
+    // authorities come from our own signed tokens and the role table, the bound is only a safety net
+    private static final int MAX_ENTRIES = 1024;
+
+    private static final ConcurrentHashMap<String, GrantedAuthority> AUTHORITIES = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<List<GrantedAuthority>, List<GrantedAuthority>> SETS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, GrantedAuthority> ROLES = new ConcurrentHashMap<>();
+
+    // copy-on-write view of AUTHORITIES for allocation-free lookups by characters
+    private static volatile GrantedAuthority[] known = new GrantedAuthority[0];
+
+    private AuthoritySets() {
+    }
+
+    public static GrantedAuthority authority(String authority) {
+        var cached = AUTHORITIES.get(authority);
+        if (cached != null) return cached;
+
+        var created = new SimpleGrantedAuthority(authority);
+        if (AUTHORITIES.size() >= MAX_ENTRIES) return created;
+
+        var existing = AUTHORITIES.putIfAbsent(authority, created);
+        if (existing != null) return existing;
+
+        synchronized (AuthoritySets.class) {
+            known = AUTHORITIES.values().toArray(GrantedAuthority[]::new);
+        }
+        return created;
+    }
+
+    /**
+     * Looks up an already interned authority by its characters without allocating a string.
+     */
+    public static GrantedAuthority authority(char[] chars, int offset, int length) {
+        for (var candidate : known) {
+            var name = candidate.getAuthority();
+            if (name != null && name.length() == length && regionEquals(name, chars, offset)) {
+                return candidate;
+            }
+        }
+        return authority(new String(chars, offset, length));
+    }
+
+    public static GrantedAuthority role(String roleName) {
+        var cached = ROLES.get(roleName);
+        if (cached != null) return cached;
+
+        var authority = authority("ROLE_" + roleName);
+        if (ROLES.size() < MAX_ENTRIES) ROLES.putIfAbsent(roleName, authority);
+        return authority;
+    }
+
+    /**
+     * Returns the canonical immutable list equal to {@code authorities}; the argument is never retained.
+     */
+    public static List<GrantedAuthority> canonical(List<GrantedAuthority> authorities) {
+        if (authorities.isEmpty()) return List.of();
+
+        var cached = SETS.get(authorities);
+        if (cached != null) return cached;
+
+        var copy = List.copyOf(authorities);
+        if (SETS.size() >= MAX_ENTRIES) return copy;
+
+        var existing = SETS.putIfAbsent(copy, copy);
+        return existing != null ? existing : copy;
+    }
+
+    private static boolean regionEquals(String name, char[] chars, int offset) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != chars[offset + i]) return false;
+        }
+        return true;
+    }
+}
@@ -1,12 +1,12 @@
 package d76.app.security.principal;
 
 import d76.app.auth.model.IdentityProvider;
-import d76.app.user.entity.Users;
+import d76.app.user.model.UserSnapshot;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NonNull;
+import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.oauth2.core.oidc.OidcIdToken;
 import org.springframework.security.oauth2.core.oidc.OidcUserInfo;
@@ -14,44 +14,51 @@ import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 @Getter
-@Builder(builderClassName = "Builder")
-public class UserPrincipal implements UserDetails, OidcUser, OAuth2User {
+@Builder(builderClassName = "Builder", toBuilder = true)
+public class UserPrincipal implements UserDetails, OidcUser, OAuth2User, CredentialsContainer {
 
     private final Long userId;
     private final String email;
     private final IdentityProvider identityProvider;
     private final Collection<? extends GrantedAuthority> authorities;
 
+    // bcrypt hash for form login only, erased once authentication completes
+    private String password;
+
     private final Map<String, Object> attributes;
     private final OidcIdToken oidcIdToken;
     private final OidcUserInfo oidcUserInfo;
 
     // -------- Static factory helpers (entry points) --------
 
-    public static UserPrincipal fromUserEntity(Users user) {
-        return baseBuilder(user)
+    public static UserPrincipal fromSnapshot(UserSnapshot user, List<GrantedAuthority> authorities) {
+        return baseBuilder(user, authorities)
                 .identityProvider(IdentityProvider.EMAIL)
+                .password(user.passwordHash())
                 .build();
     }
 
-    public static UserPrincipal fromOAuth2(Users user,
+    public static UserPrincipal fromOAuth2(UserSnapshot user,
+                                           List<GrantedAuthority> authorities,
                                            IdentityProvider provider,
                                            Map<String, Object> attributes) {
-        return baseBuilder(user)
+        return baseBuilder(user, authorities)
                 .identityProvider(provider)
                 .attributes(attributes)
                 .build();
     }
 
-    public static UserPrincipal fromOidc(Users user,
+    public static UserPrincipal fromOidc(UserSnapshot user,
+                                         List<GrantedAuthority> authorities,
                                          IdentityProvider provider,
                                          Map<String, Object> attributes,
                                          OidcIdToken idToken,
                                          OidcUserInfo userInfo) {
-        return baseBuilder(user)
+        return baseBuilder(user, authorities)
                 .identityProvider(provider)
                 .attributes(attributes)
                 .oidcIdToken(idToken)
@@ -71,15 +78,12 @@ public class UserPrincipal implements UserDetails, OidcUser, OAuth2User {
                 .build();
     }
 
-    // Common builder setup for DB user
-    private static Builder baseBuilder(Users user) {
+    // Common builder setup for DB user; authorities come from the RoleCatalog for user.roles()
+    private static Builder baseBuilder(UserSnapshot user, List<GrantedAuthority> authorities) {
         return UserPrincipal.builder()
-                .userId(user.getId())
-                .email(user.getEmail())
-                .authorities(user.getRoles()
-                        .stream()
-                        .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getName()))
-                        .toList());
+                .userId(user.id())
+                .email(user.email())
+                .authorities(authorities);
     }
 
     @Override
@@ -110,7 +114,12 @@ public class UserPrincipal implements UserDetails, OidcUser, OAuth2User {
 
     @Override
     public String getPassword() {
-        return null;
+        return password;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
     }
 
     @Override
@@ -0,0 +1,97 @@
+package d76.app.security.reactive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import d76.app.core.exception.ApiErrorResponse;
+import d76.app.core.exception.BusinessException;
+import d76.app.security.jwt.AccessTokenClaims;
+import d76.app.security.jwt.AccessTokenDecoder;
+import d76.app.security.jwt.JwtAuthentication;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.NullMarked;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+
+/**
+ * {@code JwtFilter} for the reactive mode. Verification is CPU work and runs on the event loop, except for a token
+ * signed with a key id this node has not seen (the key ring is refreshed from the cache) or carrying an unknown role
+ * catalog version (the catalog is reloaded from the database): those are decoded on the bounded elastic scheduler.
+ * Not a bean: it is only added to the security filter chain.
+ */
+@NullMarked
+@RequiredArgsConstructor
+public class ReactiveJwtFilter implements WebFilter {
+
+    private final AccessTokenDecoder accessTokenDecoder;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        if (header == null || !header.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+
+        String token = header.substring("Bearer ".length()).trim();
+        String remoteAddress = remoteAddress(exchange);
+
+        return decode(token)
+                // only decoding failures: errors of the rest of the chain are not this filter's to answer
+                .onErrorResume(BusinessException.class, e -> writeError(exchange, e).then(Mono.<AccessTokenClaims>empty()))
+                .flatMap(claims -> chain.filter(exchange)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(new JwtAuthentication(claims, remoteAddress))));
+    }
+
+    private Mono<AccessTokenClaims> decode(String token) {
+        AccessTokenClaims claims;
+        try {
+            claims = accessTokenDecoder.decodeIfReady(token);
+        } catch (BusinessException e) {
+            return Mono.error(e);
+        }
+
+        return claims != null
+                ? Mono.just(claims)
+                : Mono.fromCallable(() -> accessTokenDecoder.decode(token)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<Void> writeError(ServerWebExchange exchange, BusinessException e) {
+        var errorCode = e.getErrorCode();
+        var response = exchange.getResponse();
+
+        var errorResponse = ApiErrorResponse
+                .builder()
+                .errorCode(errorCode.getCode())
+                .statusCode(HttpStatus.UNAUTHORIZED.value())
+                .path(exchange.getRequest().getPath().value())
+                .message(e.getMessage())
+                .timestamp(Instant.now())
+                .build();
+
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(errorResponse);
+        } catch (JsonProcessingException ex) {
+            return Mono.error(ex);
+        }
+
+        response.setStatusCode(errorCode.getStatus());
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    static String remoteAddress(ServerWebExchange exchange) {
+        var address = exchange.getRequest().getRemoteAddress();
+        return address != null && address.getAddress() != null ? address.getAddress().getHostAddress() : "";
+    }
+}
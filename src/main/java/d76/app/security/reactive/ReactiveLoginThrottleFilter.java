@@ -0,0 +1,44 @@
+package d76.app.security.reactive;
+
+import d76.app.security.throttle.LoginThrottle;
+import d76.app.security.throttle.LoginThrottleFilter;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.NullMarked;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * {@code LoginThrottleFilter} for the reactive mode, ordered before form login so throttled attempts are answered
+ * before the password encoder is reached. The throttle reads the cache, so the check runs on the bounded elastic
+ * scheduler. The login form is cached by the exchange, so form login reads it again without consuming the body.
+ * Not a bean: it is only added to the security filter chain.
+ */
+@NullMarked
+@RequiredArgsConstructor
+public class ReactiveLoginThrottleFilter implements WebFilter {
+
+    private final LoginThrottle loginThrottle;
+    private final ReactiveSecurityHandlers handlers;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        var request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.POST
+                || !LoginThrottleFilter.LOGIN_PATH.equals(request.getPath().pathWithinApplication().value())) {
+            return chain.filter(exchange);
+        }
+
+        String remoteAddress = ReactiveJwtFilter.remoteAddress(exchange);
+
+        return exchange.getFormData()
+                .publishOn(Schedulers.boundedElastic())
+                .map(form -> loginThrottle.retryAfterSeconds(form.getFirst("username"), remoteAddress))
+                .flatMap(retryAfter -> retryAfter == 0
+                        ? chain.filter(exchange)
+                        : handlers.onLoginThrottled(exchange, retryAfter));
+    }
+}
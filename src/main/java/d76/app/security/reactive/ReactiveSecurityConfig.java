@@ -0,0 +1,120 @@
+package d76.app.security.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import d76.app.security.jwt.AccessTokenDecoder;
+import d76.app.security.throttle.LoginThrottle;
+import d76.app.security.userdetails.AuthUserDetailsService;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.NullMarked;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive counterpart of {@code SecurityConfig}, active with {@code spring.main.web-application-type=reactive}.
+ * <p>
+ * Differences from the servlet chain: OAuth2 login is not available, and method security is not enabled
+ * because blocking controllers run on a separate pool without the security context, so the
+ * {@code @PreAuthorize} rules are enforced here by path instead.
+ */
+@NullMarked
+@Configuration
+@EnableWebFluxSecurity
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    private final AccessTokenDecoder accessTokenDecoder;
+    private final ReactiveSecurityHandlers handlers;
+    private final LoginThrottle loginThrottle;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * JPA has no non-blocking driver here, so lookups are moved off the event loop.
+     */
+    @Bean
+    ReactiveUserDetailsService reactiveUserDetailsService(AuthUserDetailsService userDetailsService) {
+        return username -> Mono.fromCallable(() -> userDetailsService.loadUserByUsername(username))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Bean
+    SecurityWebFilterChain reactiveFilterChain(
+            ServerHttpSecurity security,
+            ReactiveUserDetailsService userDetailsService,
+            AuthUserDetailsService passwordService,
+            PasswordEncoder passwordEncoder
+    ) {
+        // password checks run on boundedElastic by default
+        var authenticationManager = new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        authenticationManager.setUserDetailsPasswordService((user, newPassword) ->
+                Mono.fromCallable(() -> passwordService.updatePassword(user, newPassword))
+                        .subscribeOn(Schedulers.boundedElastic()));
+
+        return security
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .cors(Customizer.withDefaults())
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .formLogin(f -> f
+                        .loginPage("/api/auth/login")
+                        .requiresAuthenticationMatcher(ServerWebExchangeMatchers.pathMatchers(HttpMethod.POST, "/api/auth/login"))
+                        .authenticationManager(authenticationManager)
+                        .authenticationSuccessHandler(handlers::onLoginSuccess)
+                        .authenticationFailureHandler(handlers::onLoginFailure)
+                )
+                .logout(l -> l
+                        .requiresLogout(ServerWebExchangeMatchers.pathMatchers("/api/auth/logout"))
+                        .logoutHandler(handlers::onLogout)
+                        .logoutSuccessHandler(handlers::onLogoutSuccess)
+                )
+                .authorizeExchange(ex -> ex
+                        // the @PreAuthorize rules of the servlet mode
+                        .pathMatchers("/api/admin/**", "/admin/**").hasRole("ADMIN")
+                        .pathMatchers("/user/**", "/secret").hasRole("USER")
+                        .pathMatchers("/api/auth/token/introspect/**").hasRole("INTROSPECTION")
+
+                        .pathMatchers("/", "/home").permitAll()
+                        .pathMatchers("/api/auth/**").permitAll()
+                        .pathMatchers("/api/oauth/**").permitAll()
+                        .pathMatchers("/api/users/**").permitAll()
+                        .pathMatchers("/login/**", "/error").permitAll()
+                        .pathMatchers("/v3/api-docs/**", "/swagger-ui/**").permitAll()
+                        .pathMatchers("/.well-known/jwks.json").permitAll()
+                        .pathMatchers(
+                                "/login",
+                                "/register",
+                                "/verify-otp",
+                                "/forgot-password",
+                                "/reset-password",
+                                "/dashboard",
+                                "/security",
+                                "/css/**",
+                                "/js/**"
+                        ).permitAll()
+
+                        .anyExchange().authenticated()
+                )
+                .exceptionHandling(ex -> ex
+                        .authenticationEntryPoint(handlers::onUnauthenticated)
+                        .accessDeniedHandler(handlers::onAccessDenied)
+                )
+                .addFilterBefore(new ReactiveLoginThrottleFilter(loginThrottle, handlers), SecurityWebFiltersOrder.FORM_LOGIN)
+                .addFilterAt(new ReactiveJwtFilter(accessTokenDecoder, objectMapper), SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+}
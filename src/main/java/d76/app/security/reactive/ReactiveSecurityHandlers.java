@@ -0,0 +1,183 @@
+package d76.app.security.reactive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import d76.app.auth.dto.LoginSuccess;
+import d76.app.auth.exception.AuthErrorCode;
+import d76.app.auth.service.ReactiveRefreshTokenService;
+import d76.app.core.exception.ApiErrorResponse;
+import d76.app.security.auth.TokenRevocationLogoutHandler;
+import d76.app.security.crypto.HashingCapacityExceededException;
+import d76.app.security.jwt.JwtService;
+import d76.app.security.principal.UserPrincipal;
+import d76.app.security.throttle.LoginThrottle;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.server.WebFilterExchange;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Login, logout and error responses of {@link ReactiveSecurityConfig}, written in the same shape as
+ * {@code LoginSuccessHandler}, {@code LoginFailureHandler}, {@code RestAuthenticationEntryPoint},
+ * {@code RestAccessDeniedHandler} and {@code LogoutSuccessHandler}.
+ */
+@NullMarked
+@Component
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityHandlers {
+
+    private final JwtService jwtService;
+    private final ReactiveRefreshTokenService refreshTokenService;
+    private final TokenRevocationLogoutHandler revocationHandler;
+    private final LoginThrottle loginThrottle;
+    private final ObjectMapper objectMapper;
+    private final tools.jackson.databind.ObjectMapper responseMapper;
+
+    Mono<Void> onLoginSuccess(WebFilterExchange webFilterExchange, Authentication authentication) {
+        if (!(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+            return Mono.error(new IllegalStateException("Unsupported principal type"));
+        }
+
+        var exchange = webFilterExchange.getExchange();
+        var accessToken = jwtService.generateAccessToken(principal);
+
+        var recordSuccess = exchange.getFormData()
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(form -> loginThrottle.recordSuccess(form.getFirst("username")))
+                .then();
+
+        return recordSuccess.then(refreshTokenService.issue(principal)).flatMap(refreshToken -> {
+            var loginResponse = LoginSuccess.builder()
+                    .status("LOGIN_SUCCESS")
+                    .username(principal.getUsername())
+                    .accessToken(accessToken)
+                    .refreshToken(refreshToken)
+                    .identityProvider(principal.getIdentityProvider().name())
+                    .issuedAt(Instant.now())
+                    .build();
+
+            return write(exchange, HttpStatus.OK, responseMapper.writeValueAsBytes(loginResponse));
+        });
+    }
+
+    Mono<Void> onLoginFailure(WebFilterExchange webFilterExchange, AuthenticationException ex) {
+        var exchange = webFilterExchange.getExchange();
+        var errorCode = ex instanceof HashingCapacityExceededException
+                ? AuthErrorCode.AUTHENTICATION_BUSY
+                : AuthErrorCode.INVALID_CREDENTIALS;
+
+        if (ex instanceof HashingCapacityExceededException) {
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(HashingCapacityExceededException.RETRY_AFTER_SECONDS));
+        }
+
+        var errorResponse = ApiErrorResponse.builder()
+                .statusCode(errorCode.getStatus().value())
+                .errorCode(errorCode.getCode())
+                .message(errorCode.defaultMessage())
+                .path(exchange.getRequest().getPath().value())
+                .timestamp(Instant.now())
+                .authProvider("EMAIL")
+                .build();
+
+        if (ex instanceof HashingCapacityExceededException) {
+            return writeError(exchange, errorResponse);
+        }
+
+        String remoteAddress = ReactiveJwtFilter.remoteAddress(exchange);
+        return exchange.getFormData()
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(form -> loginThrottle.recordFailure(form.getFirst("username"), remoteAddress))
+                .then(writeError(exchange, errorResponse));
+    }
+
+    Mono<Void> onLoginThrottled(ServerWebExchange exchange, long retryAfterSeconds) {
+        var errorCode = AuthErrorCode.TOO_MANY_LOGIN_ATTEMPTS;
+        var errorResponse = ApiErrorResponse.builder()
+                .statusCode(errorCode.getStatus().value())
+                .errorCode(errorCode.getCode())
+                .message(errorCode.defaultMessage())
+                .path(exchange.getRequest().getPath().value())
+                .timestamp(Instant.now())
+                .authProvider("EMAIL")
+                .build();
+
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return writeError(exchange, errorResponse);
+    }
+
+    Mono<Void> onUnauthenticated(ServerWebExchange exchange, AuthenticationException ex) {
+        var errorCode = AuthErrorCode.INVALID_CREDENTIALS;
+        return writeError(exchange, ApiErrorResponse.constructErrorResponse(errorCode, errorCode.defaultMessage(), exchange.getRequest().getPath().value()));
+    }
+
+    Mono<Void> onAccessDenied(ServerWebExchange exchange, AccessDeniedException ex) {
+        var errorCode = AuthErrorCode.ACCESS_DENIED;
+        return writeError(exchange, ApiErrorResponse.constructErrorResponse(errorCode, errorCode.defaultMessage(), exchange.getRequest().getPath().value()));
+    }
+
+    Mono<Void> onLogout(WebFilterExchange webFilterExchange, @Nullable Authentication authentication) {
+        var request = webFilterExchange.getExchange().getRequest();
+        // revoking writes to the revocation store and publishes to the cluster, both blocking
+        var revokeAccessToken = Mono.fromRunnable(() ->
+                        revocationHandler.revokeAccessToken(request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+
+        var contentType = request.getHeaders().getContentType();
+        if (!TokenRevocationLogoutHandler.isJson(contentType == null ? null : contentType.toString())) {
+            return revokeAccessToken;
+        }
+
+        return revokeAccessToken.then(DataBufferUtils.join(request.getBody()))
+                .flatMap(buffer -> {
+                    try (var body = buffer.asInputStream(true)) {
+                        var refreshToken = revocationHandler.readRefreshToken(body);
+                        return refreshToken == null ? Mono.empty() : refreshTokenService.revoke(refreshToken);
+                    } catch (IOException e) {
+                        return Mono.empty();
+                    }
+                });
+    }
+
+    Mono<Void> onLogoutSuccess(WebFilterExchange webFilterExchange, @Nullable Authentication authentication) {
+        byte[] body = """
+                    {
+                      "status": "LOGOUT_SUCCESS",
+                      "message": "Session ended and cookie cleared"
+                    }
+                """.getBytes(StandardCharsets.UTF_8);
+        return write(webFilterExchange.getExchange(), HttpStatus.OK, body);
+    }
+
+    private Mono<Void> writeError(ServerWebExchange exchange, ApiErrorResponse errorResponse) {
+        try {
+            return write(exchange, HttpStatus.valueOf(errorResponse.getStatusCode()), objectMapper.writeValueAsBytes(errorResponse));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, HttpStatus status, byte[] body) {
+        var response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
@@ -0,0 +1,89 @@
+package d76.app.security.revocation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocations of a single node ({@code app.cache.type=local}). With {@code app.cache.local.snapshotFile} set they are
+ * written next to the cache snapshot on shutdown ({@code <snapshotFile>.revocations}, one {@code <jti> <exp>} per
+ * line) and loaded again on startup, so tokens revoked before a restart stay revoked. They are kept apart from the
+ * cache because its size bound must never drop a revocation.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.cache.type", havingValue = "local")
+public class LocalRevocationStore implements RevocationStore, DisposableBean {
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final Path file;
+
+    LocalRevocationStore(@Value("${app.cache.local.snapshotFile:}") String snapshotFile) {
+        this.file = snapshotFile.isBlank() ? null : Path.of(snapshotFile + ".revocations");
+        if (file != null) load();
+    }
+
+    @Override
+    public void add(String tokenId, long expiresAtEpochSecond) {
+        revoked.merge(tokenId, expiresAtEpochSecond, Math::max);
+    }
+
+    @Override
+    public Map<String, Long> snapshot(long nowEpochSecond) {
+        Map<String, Long> snapshot = new ConcurrentHashMap<>(revoked);
+        snapshot.values().removeIf(exp -> exp < nowEpochSecond);
+        return snapshot;
+    }
+
+    @Override
+    public void prune(long nowEpochSecond) {
+        revoked.values().removeIf(exp -> exp <= nowEpochSecond);
+    }
+
+    @Override
+    public void destroy() {
+        if (file == null) return;
+
+        List<String> lines = new ArrayList<>();
+        snapshot(Instant.now().getEpochSecond()).forEach((tokenId, exp) -> lines.add(tokenId + " " + exp));
+        try {
+            var temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote revoked tokens entries={} file={}", lines.size(), file);
+        } catch (IOException e) {
+            log.warn("Failed to write revoked tokens file={}: {}", file, e.getMessage());
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(file)) return;
+
+        long now = Instant.now().getEpochSecond();
+        try {
+            for (var line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int space = line.indexOf(' ');
+                if (space <= 0) continue;
+
+                long exp = Long.parseLong(line.substring(space + 1));
+                if (exp >= now) add(line.substring(0, space), exp);
+            }
+            log.info("Loaded revoked tokens entries={} file={}", revoked.size(), file);
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Failed to load revoked tokens file={}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package d76.app.security.revocation;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Revocations kept in a sorted set scored by token expiry, so expired ones can be dropped with a single range delete.
+ */
+@Service
+@ConditionalOnProperty(name = "app.cache.type", havingValue = "redis", matchIfMissing = true)
+@RequiredArgsConstructor
+public class RedisRevocationStore implements RevocationStore {
+
+    private static final String KEY = "jwt:revoked";
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public void add(String tokenId, long expiresAtEpochSecond) {
+        redisTemplate.opsForZSet().add(KEY, tokenId, expiresAtEpochSecond);
+    }
+
+    @Override
+    public Map<String, Long> snapshot(long nowEpochSecond) {
+        var entries = redisTemplate.opsForZSet().rangeByScoreWithScores(KEY, nowEpochSecond, Double.POSITIVE_INFINITY);
+
+        Map<String, Long> snapshot = new HashMap<>();
+        if (entries != null) {
+            for (var entry : entries) {
+                if (entry.getValue() != null && entry.getScore() != null) {
+                    snapshot.put(entry.getValue(), entry.getScore().longValue());
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    public void prune(long nowEpochSecond) {
+        redisTemplate.opsForZSet().removeRangeByScore(KEY, Double.NEGATIVE_INFINITY, nowEpochSecond);
+    }
+}
@@ -0,0 +1,18 @@
+package d76.app.security.revocation;
+
+import java.util.Map;
+
+/**
+ * Durable list of revoked token ids, used to seed and resync the in-memory registry of each node.
+ */
+public interface RevocationStore {
+
+    void add(String tokenId, long expiresAtEpochSecond);
+
+    /**
+     * Every revocation that is still relevant at {@code nowEpochSecond}, as token id to expiry.
+     */
+    Map<String, Long> snapshot(long nowEpochSecond);
+
+    void prune(long nowEpochSecond);
+}
@@ -0,0 +1,154 @@
+package d76.app.security.revocation;
+
+import d76.app.core.event.ClusterEventBus;
+import d76.app.core.metrics.MetricsSource;
+import d76.app.core.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Access tokens revoked before their {@code exp}, checked in-process on every request.
+ * <p>
+ * A Bloom filter answers the common "not revoked" case without touching the exact map; a hit is confirmed
+ * against the map of token id to expiry. Revocations are written to a {@link RevocationStore} and broadcast
+ * over the {@link ClusterEventBus}; each node seeds itself from the store on startup and resyncs periodically
+ * in case it missed a message. Entries are pruned once the token would have expired anyway.
+ */
+@Slf4j
+@Component
+public class RevokedTokenRegistry implements MetricsSource {
+
+    private static final String CHANNEL = "auth:token-revocations";
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+
+    private final ClusterEventBus eventBus;
+    private final RevocationStore store;
+    private final int expectedRevocations;
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private final LongAdder filterHits = new LongAdder();
+    private final LongAdder confirmedHits = new LongAdder();
+
+    private volatile BloomFilter filter;
+
+    RevokedTokenRegistry(
+            ClusterEventBus eventBus,
+            RevocationStore store,
+            @Value("${jwt.revocation.expectedRevocations:100000}") int expectedRevocations
+    ) {
+        this.eventBus = eventBus;
+        this.store = store;
+        this.expectedRevocations = expectedRevocations;
+        this.filter = BloomFilter.create(expectedRevocations, FALSE_POSITIVE_RATE);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (!filter.mightContain(tokenId)) return false;
+
+        filterHits.increment();
+        boolean confirmed = revoked.containsKey(tokenId);
+        if (confirmed) confirmedHits.increment();
+        return confirmed;
+    }
+
+    /**
+     * Revokes the token on every node until {@code expiresAtEpochSecond}.
+     */
+    public void revoke(String tokenId, long expiresAtEpochSecond) {
+        if (expiresAtEpochSecond <= nowEpochSecond()) return;
+
+        addLocal(tokenId, expiresAtEpochSecond);
+        try {
+            store.add(tokenId, expiresAtEpochSecond);
+            eventBus.publish(CHANNEL, tokenId + " " + expiresAtEpochSecond);
+        } catch (RuntimeException e) {
+            // still revoked here; other nodes pick it up on their next resync
+            log.warn("Failed to distribute token revocation jti={}: {}", tokenId, e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        eventBus.subscribe(CHANNEL, this::onMessage);
+        resync();
+    }
+
+    @Scheduled(
+            initialDelayString = "${jwt.revocation.resyncMillis:300000}",
+            fixedDelayString = "${jwt.revocation.resyncMillis:300000}"
+    )
+    void resync() {
+        try {
+            store.snapshot(nowEpochSecond()).forEach(this::addLocal);
+        } catch (RuntimeException e) {
+            log.warn("Failed to load revoked token snapshot: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.pruneMillis:60000}")
+    void prune() {
+        long now = nowEpochSecond();
+
+        synchronized (writeLock) {
+            revoked.values().removeIf(exp -> exp <= now);
+
+            // rebuilt from the exact set: drops expired ids and resizes if revocations outgrew the estimate
+            var rebuilt = BloomFilter.create(Math.max(expectedRevocations, revoked.size() * 2L), FALSE_POSITIVE_RATE);
+            revoked.keySet().forEach(rebuilt::put);
+            filter = rebuilt;
+        }
+
+        try {
+            store.prune(now);
+        } catch (RuntimeException e) {
+            log.warn("Failed to prune revoked token store: {}", e.getMessage());
+        }
+    }
+
+    private void onMessage(String message) {
+        int space = message.indexOf(' ');
+        if (space <= 0) return;
+
+        addLocal(message.substring(0, space), Long.parseLong(message.substring(space + 1)));
+    }
+
+    private void addLocal(String tokenId, long expiresAtEpochSecond) {
+        synchronized (writeLock) {
+            revoked.merge(tokenId, expiresAtEpochSecond, Math::max);
+            filter.put(tokenId);
+        }
+    }
+
+    private static long nowEpochSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    @Override
+    public String metricsName() {
+        return "jwt.revokedTokens";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        var current = filter;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", revoked.size());
+        stats.put("filterBits", current.bitCount());
+        stats.put("filterHashes", current.hashCount());
+        stats.put("filterFillRatio", current.fillRatio());
+        stats.put("filterHits", filterHits.sum());
+        stats.put("confirmedHits", confirmedHits.sum());
+        return stats;
+    }
+}
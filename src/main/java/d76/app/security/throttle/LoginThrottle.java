@@ -0,0 +1,207 @@
+package d76.app.security.throttle;
+
+import d76.app.core.metrics.MetricsSource;
+import d76.app.core.service.CacheService;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Failed password logins counted per account and per client IP, with exponential lockouts.
+ * <p>
+ * Counters live in the cache under {@code login:fail:<subject>} for {@code app.loginThrottle.failureWindowSeconds};
+ * once a subject reaches its failure limit every further failure locks it for twice as long as the previous one,
+ * up to {@code app.loginThrottle.maxLockSeconds}. Locks are written to {@code login:lock:<subject>} holding their
+ * expiry, and remembered locally once seen so repeated attempts against a locked subject never reach the cache.
+ * Independently, more than {@code app.loginThrottle.localMaxPerSecond} attempts per second from one IP are shed
+ * on this node alone.
+ * <p>
+ * Cache errors let the attempt through: the local checks still apply, and bcrypt is capped by the hashing queue.
+ */
+@Slf4j
+@Component
+public class LoginThrottle implements MetricsSource {
+
+    private static final String FAILURE_KEY_PREFIX = "login:fail:";
+    private static final String LOCK_KEY_PREFIX = "login:lock:";
+
+    private static final int MAX_TRACKED_WINDOWS = 100_000;
+
+    private final CacheService cacheService;
+
+    private final int accountMaxFailures;
+    private final int ipMaxFailures;
+    private final Duration failureWindow;
+    private final long maxLockSeconds;
+    private final int localMaxPerSecond;
+
+    // subject -> lock expiry (epoch millis)
+    private final Map<String, Long> knownLocks = new ConcurrentHashMap<>();
+    private final Map<String, Window> attemptWindows = new ConcurrentHashMap<>();
+
+    private final LongAdder shedLocally = new LongAdder();
+    private final LongAdder rejectedLocked = new LongAdder();
+    private final LongAdder lockouts = new LongAdder();
+
+    LoginThrottle(
+            CacheService cacheService,
+            @Value("${app.loginThrottle.account.maxFailures:5}") int accountMaxFailures,
+            @Value("${app.loginThrottle.ip.maxFailures:20}") int ipMaxFailures,
+            @Value("${app.loginThrottle.failureWindowSeconds:900}") long failureWindowSeconds,
+            @Value("${app.loginThrottle.maxLockSeconds:900}") long maxLockSeconds,
+            @Value("${app.loginThrottle.localMaxPerSecond:10}") int localMaxPerSecond
+    ) {
+        this.cacheService = cacheService;
+        this.accountMaxFailures = accountMaxFailures;
+        this.ipMaxFailures = ipMaxFailures;
+        this.failureWindow = Duration.ofSeconds(failureWindowSeconds);
+        this.maxLockSeconds = maxLockSeconds;
+        this.localMaxPerSecond = localMaxPerSecond;
+    }
+
+    /**
+     * Seconds the caller has to wait before this login attempt may run, or 0 if it may run now.
+     */
+    public long retryAfterSeconds(@Nullable String account, String ip) {
+        long now = System.currentTimeMillis();
+
+        if (!withinLocalRate(ip, now)) {
+            shedLocally.increment();
+            return 1;
+        }
+
+        var subjects = subjects(account, ip);
+
+        long lockedUntil = 0;
+        for (var subject : subjects) {
+            lockedUntil = Math.max(lockedUntil, knownLocks.getOrDefault(subject, 0L));
+        }
+
+        if (lockedUntil <= now) {
+            lockedUntil = remoteLock(subjects);
+        }
+
+        if (lockedUntil > now) {
+            rejectedLocked.increment();
+            return Math.max(1, (lockedUntil - now + 999) / 1000);
+        }
+        return 0;
+    }
+
+    public void recordFailure(@Nullable String account, String ip) {
+        try {
+            for (var subject : subjects(account, ip)) {
+                var failureKey = FAILURE_KEY_PREFIX + subject;
+
+                long failures = cacheService.increment(failureKey, 1, failureWindow.toMillis(), TimeUnit.MILLISECONDS);
+
+                int limit = subject.startsWith("ip:") ? ipMaxFailures : accountMaxFailures;
+                if (failures >= limit) lock(subject, failures - limit);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to record login failure: {}", e.getMessage());
+        }
+    }
+
+    public void recordSuccess(@Nullable String account) {
+        if (account == null || account.isBlank()) return;
+
+        try {
+            cacheService.evict(FAILURE_KEY_PREFIX + accountSubject(account));
+        } catch (RuntimeException e) {
+            log.warn("Failed to reset login failures: {}", e.getMessage());
+        }
+    }
+
+    private void lock(String subject, long excessFailures) {
+        long lockSeconds = Math.min(maxLockSeconds, 1L << Math.min(excessFailures, 30));
+        long lockedUntil = System.currentTimeMillis() + lockSeconds * 1000;
+
+        cacheService.put(LOCK_KEY_PREFIX + subject, lockedUntil, lockSeconds, TimeUnit.SECONDS);
+        knownLocks.put(subject, lockedUntil);
+        lockouts.increment();
+        log.info("Login locked subject={} seconds={}", subject, lockSeconds);
+    }
+
+    private long remoteLock(List<String> subjects) {
+        Map<String, Long> values;
+        try {
+            values = cacheService.multiGet(subjects.stream().map(s -> LOCK_KEY_PREFIX + s).toList(), Long.class);
+        } catch (RuntimeException e) {
+            log.warn("Failed to read login locks: {}", e.getMessage());
+            return 0;
+        }
+
+        long lockedUntil = 0;
+        for (var subject : subjects) {
+            var until = values.get(LOCK_KEY_PREFIX + subject);
+            if (until == null) continue;
+
+            knownLocks.put(subject, until);
+            lockedUntil = Math.max(lockedUntil, until);
+        }
+        return lockedUntil;
+    }
+
+    private boolean withinLocalRate(String ip, long now) {
+        long second = now / 1000;
+
+        var window = attemptWindows.get(ip);
+        if (window == null || window.second() != second) {
+            // under a flood from many addresses stop tracking new ones rather than grow without bound
+            if (window == null && attemptWindows.size() >= MAX_TRACKED_WINDOWS) return true;
+            window = new Window(second, new AtomicInteger());
+            attemptWindows.put(ip, window);
+        }
+        return window.attempts().incrementAndGet() <= localMaxPerSecond;
+    }
+
+    private static List<String> subjects(@Nullable String account, String ip) {
+        List<String> subjects = new ArrayList<>(2);
+        if (account != null && !account.isBlank()) subjects.add(accountSubject(account));
+        subjects.add("ip:" + ip);
+        return subjects;
+    }
+
+    private static String accountSubject(String account) {
+        return "account:" + account.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Scheduled(fixedDelay = 10_000)
+    void sweep() {
+        long now = System.currentTimeMillis();
+        knownLocks.values().removeIf(lockedUntil -> lockedUntil <= now);
+        attemptWindows.values().removeIf(window -> window.second() < now / 1000);
+    }
+
+    @Override
+    public String metricsName() {
+        return "auth.loginThrottle";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        return Map.of(
+                "shedLocally", shedLocally.sum(),
+                "rejectedLocked", rejectedLocked.sum(),
+                "lockouts", lockouts.sum(),
+                "knownLocks", knownLocks.size(),
+                "trackedAddresses", attemptWindows.size()
+        );
+    }
+
+    private record Window(long second, AtomicInteger attempts) {
+    }
+}
@@ -0,0 +1,60 @@
+package d76.app.security.throttle;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import d76.app.auth.exception.AuthErrorCode;
+import d76.app.core.exception.ApiErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.NullMarked;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Runs ahead of form login, so throttled attempts are answered before the password encoder is reached.
+ */
+@Component
+@NullMarked
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    public static final String LOGIN_PATH = "/api/auth/login";
+
+    private final LoginThrottle loginThrottle;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !LOGIN_PATH.equals(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        long retryAfter = loginThrottle.retryAfterSeconds(request.getParameter("username"), request.getRemoteAddr());
+        if (retryAfter == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        var errorCode = AuthErrorCode.TOO_MANY_LOGIN_ATTEMPTS;
+        var errorResponse = ApiErrorResponse.builder().statusCode(errorCode.getStatus().value()).errorCode(errorCode.getCode()).message(errorCode.defaultMessage()).path(request.getRequestURI()).timestamp(Instant.now()).authProvider("EMAIL").build();
+
+        response.setStatus(errorCode.getStatus().value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType("application/json");
+        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+    }
+}
@@ -1,25 +1,47 @@
 package d76.app.security.userdetails;
 
 import d76.app.security.principal.UserPrincipal;
-import d76.app.user.entity.Users;
+import d76.app.user.model.UserSnapshot;
+import d76.app.user.service.RoleCatalog;
 import d76.app.user.service.UserService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+@Slf4j
 @Service
 @NullMarked
 @RequiredArgsConstructor
-public class AuthUserDetailsService implements UserDetailsService {
+public class AuthUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserService userService;
+    private final RoleCatalog roleCatalog;
 
     @Override
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
-        Users user = userService.loadUserByEmailOrUsername(usernameOrEmail);
-        return UserPrincipal.fromUserEntity(user);
+        UserSnapshot user = userService.loadSnapshotByEmailOrUsername(usernameOrEmail);
+        return UserPrincipal.fromSnapshot(user, roleCatalog.authorities(user.roles()));
+    }
+
+    /**
+     * Called by the authentication provider after a successful password login whose stored hash
+     * no longer matches the current hashing parameters.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, @Nullable String newPassword) {
+        // the hash the login was checked against, still there as credentials are erased only after this call
+        if (!(user instanceof UserPrincipal principal) || newPassword == null || principal.getPassword() == null) {
+            return user;
+        }
+
+        userService.rehashPassword(principal.getUserId(), principal.getEmail(), principal.getPassword(), newPassword);
+        log.debug("Password rehashed with current parameters user={}", principal.getUserId());
+        return principal.toBuilder().password(newPassword).build();
     }
 }
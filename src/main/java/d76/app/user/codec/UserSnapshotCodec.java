@@ -0,0 +1,50 @@
+package d76.app.user.codec;
+
+import d76.app.auth.model.IdentityProvider;
+import d76.app.core.codec.BinaryInput;
+import d76.app.core.codec.BinaryOutput;
+import d76.app.core.codec.ValueCodec;
+import d76.app.user.model.UserSnapshot;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumSet;
+
+@Component
+class UserSnapshotCodec implements ValueCodec<UserSnapshot> {
+
+    @Override
+    public int tag() {
+        return 1;
+    }
+
+    @Override
+    public Class<UserSnapshot> type() {
+        return UserSnapshot.class;
+    }
+
+    @Override
+    public void write(UserSnapshot value, BinaryOutput out) {
+        out.writeNullableLong(value.id());
+        out.writeString(value.username());
+        out.writeString(value.email());
+        out.writeString(value.passwordHash());
+        out.writeStrings(value.roles());
+        // by name rather than ordinal, so reordering the enum cannot remap cached providers
+        out.writeStrings(value.identityProviders().stream().map(Enum::name).toList());
+    }
+
+    @Override
+    public UserSnapshot read(BinaryInput in, int version) {
+        var id = in.readNullableLong();
+        var username = in.readString();
+        var email = in.readString();
+        var passwordHash = in.readString();
+        var roles = in.readStrings();
+
+        var providers = EnumSet.noneOf(IdentityProvider.class);
+        in.readStrings().forEach(name -> providers.add(IdentityProvider.valueOf(name)));
+
+        return new UserSnapshot(id, username, email, passwordHash, roles, Collections.unmodifiableSet(providers));
+    }
+}
@@ -3,6 +3,7 @@ package d76.app.user.entity;
 import d76.app.auth.model.IdentityProvider;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
@@ -12,6 +13,8 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+// admin search pages newest first by (created_at, id); the index makes every page a single seek
+@Table(indexes = @Index(name = "USERS_CREATED_AT_ID_IDX", columnList = "created_at desc, id desc"))
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -19,8 +22,10 @@ import java.util.Set;
 @Builder
 public class Users {
 
+    // pooled sequence ids: unlike IDENTITY they let Hibernate batch inserts, one sequence call per 50 users
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -32,7 +37,8 @@ public class Users {
     private String password;
 
     @Builder.Default
-    @ManyToMany(fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "users_roles",
             joinColumns = @JoinColumn(
@@ -47,11 +53,16 @@ public class Users {
     @OnDelete(action = OnDeleteAction.CASCADE)
     private Set<Role> roles = new HashSet<>();
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
+    @ElementCollection(fetch = FetchType.LAZY)
     @Enumerated(EnumType.STRING)
     @CollectionTable(
             name = "users_auth_providers",
-            joinColumns = @JoinColumn(name = "user_id")
+            joinColumns = @JoinColumn(name = "user_id"),
+            uniqueConstraints = @UniqueConstraint(
+                    name = "USERS_AUTH_PROVIDERS_UK",
+                    columnNames = {"user_id", "auth_provider"}
+            )
     )
     @Column(name = "auth_provider")
     @OnDelete(action = OnDeleteAction.CASCADE)
@@ -13,7 +13,10 @@ public enum UserErrorCode implements ErrorCode {
 
     //PASSWORD
     INCORRECT_PASSWORD(HttpStatus.CONFLICT, "Incorrect Password"),
-    SAME_PASSWORD(HttpStatus.CONFLICT, "New password cannot be same as the old password");
+    SAME_PASSWORD(HttpStatus.CONFLICT, "New password cannot be same as the old password"),
+
+    //ADMIN
+    INVALID_CURSOR(HttpStatus.BAD_REQUEST, "The page cursor is invalid");
 
     private final HttpStatus status;
     private final String defaultMessage;
@@ -0,0 +1,19 @@
+package d76.app.user.model;
+
+/**
+ * Flat row read by the authentication lookups; roles and providers come as comma-separated lists.
+ */
+public interface AuthUserView {
+
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    String getPassword();
+
+    String getRoles();
+
+    String getProviders();
+}
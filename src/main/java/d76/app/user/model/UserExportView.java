@@ -0,0 +1,21 @@
+package d76.app.user.model;
+
+import java.time.Instant;
+
+/**
+ * Row of the admin export; roles and providers come as comma-separated lists. Never carries the password hash.
+ */
+public interface UserExportView {
+
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    Instant getCreatedAt();
+
+    String getRoles();
+
+    String getProviders();
+}
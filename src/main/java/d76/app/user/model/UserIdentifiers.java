@@ -0,0 +1,7 @@
+package d76.app.user.model;
+
+public record UserIdentifiers(
+        String username,
+        String email
+) {
+}
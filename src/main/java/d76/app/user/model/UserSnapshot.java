@@ -0,0 +1,42 @@
+package d76.app.user.model;
+
+import d76.app.auth.model.IdentityProvider;
+import d76.app.user.entity.Users;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Immutable copy of the fields authentication needs from {@link Users}, safe to share between threads and nodes.
+ */
+public record UserSnapshot(
+        Long id,
+        String username,
+        String email,
+        String passwordHash,
+        List<String> roles,
+        Set<IdentityProvider> identityProviders
+) {
+
+    public static UserSnapshot of(AuthUserView view) {
+        return new UserSnapshot(
+                view.getId(),
+                view.getUsername(),
+                view.getEmail(),
+                view.getPassword(),
+                split(view.getRoles()).sorted().toList(),
+                split(view.getProviders()).map(IdentityProvider::valueOf).collect(Collectors.toUnmodifiableSet())
+        );
+    }
+
+    private static Stream<String> split(String values) {
+        return values == null || values.isEmpty() ? Stream.empty() : Arrays.stream(values.split(","));
+    }
+
+    public boolean hasProvider(IdentityProvider provider) {
+        return identityProviders.contains(provider);
+    }
+}
@@ -1,24 +1,105 @@
 package d76.app.user.repo;
 
 import d76.app.user.entity.Users;
+import d76.app.user.model.AuthUserView;
+import d76.app.user.model.UserExportView;
+import d76.app.user.model.UserIdentifiers;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.jspecify.annotations.NullMarked;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @NullMarked
 @Repository
-public interface UsersRepository extends JpaRepository<Users, Long> {
-
-    @EntityGraph(attributePaths = {"roles", "identityProviders"})
-    Optional<Users> findByUsernameOrEmail(String username, String email);
+public interface UsersRepository extends JpaRepository<Users, Long>, JpaSpecificationExecutor<Users> {
 
     @EntityGraph(attributePaths = {"roles", "identityProviders"})
     Optional<Users> findByEmail(String email);
 
+    // authentication read path: one indexed lookup, collections aggregated per user instead of joined into a cartesian row set
+    String AUTH_VIEW_SELECT = """
+            select u.id as id, u.username as username, u.email as email, u.password as password,
+                   (select string_agg(r.name, ',') from users_roles ur join role r on r.id = ur.role_id
+                     where ur.user_id = u.id) as roles,
+                   (select string_agg(p.auth_provider, ',') from users_auth_providers p
+                     where p.user_id = u.id) as providers
+            from users u
+            """;
+
+    @Query(value = AUTH_VIEW_SELECT + "where u.email = :email", nativeQuery = true)
+    Optional<AuthUserView> findAuthViewByEmail(String email);
+
+    @Query(value = AUTH_VIEW_SELECT + "where u.username = :username", nativeQuery = true)
+    Optional<AuthUserView> findAuthViewByUsername(String username);
+
+    /**
+     * Links {@code provider} to the user with {@code email} in one statement; returns the username if a row was
+     * inserted, empty if the provider was already linked or no such user exists.
+     */
+    @Transactional
+    @Query(value = """
+            with target as (select u.id, u.username from users u where u.email = :email),
+                 inserted as (
+                     insert into users_auth_providers (user_id, auth_provider)
+                     select t.id, :provider from target t
+                     on conflict do nothing
+                     returning user_id
+                 )
+            select t.username from target t join inserted i on i.user_id = t.id
+            """, nativeQuery = true)
+    Optional<String> linkAuthProvider(String email, String provider);
+
+    /**
+     * Replaces the password hash only while it is still {@code currentHash}, so a password change committed in
+     * between is never overwritten; returns the username if the row was updated.
+     */
+    @Transactional
+    @Query(value = """
+            with updated as (
+                update users set password = :newHash
+                where id = :id and password = :currentHash
+                returning username
+            )
+            select username from updated
+            """, nativeQuery = true)
+    Optional<String> replacePassword(Long id, String currentHash, String newHash);
+
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    @Query("select u.email from Users u where u.email in :emails")
+    Set<String> findExistingEmails(Collection<String> emails);
+
+    @Query("select u.username from Users u where u.username in :usernames")
+    Set<String> findExistingUsernames(Collection<String> usernames);
+
+    // must be consumed inside a transaction; rows are fetched in batches instead of loaded at once
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new d76.app.user.model.UserIdentifiers(u.username, u.email) from Users u")
+    Stream<UserIdentifiers> streamAllIdentifiers();
+
+    // must be consumed inside a transaction, which is what lets the driver fetch through a cursor
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = """
+            select u.id as id, u.username as username, u.email as email, u.created_at as createdAt,
+                   (select string_agg(r.name, ',') from users_roles ur join role r on r.id = ur.role_id
+                     where ur.user_id = u.id) as roles,
+                   (select string_agg(p.auth_provider, ',') from users_auth_providers p
+                     where p.user_id = u.id) as providers
+            from users u
+            order by u.id
+            """, nativeQuery = true)
+    Stream<UserExportView> streamForExport();
 }
@@ -0,0 +1,42 @@
+package d76.app.user.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Emails and usernames of users written in the last {@code app.datasource.replicas.stickyMillis}, on any node.
+ * <p>
+ * Reads for these users go to the primary, so a replica that has not replayed the write yet cannot answer with
+ * a stale or missing row. Fed by {@link UserSnapshotCache}, whose evictions already reach every node.
+ */
+@Component
+class RecentUserWrites {
+
+    private final long stickyMillis;
+    private final Map<String, Long> writtenUntil = new ConcurrentHashMap<>();
+
+    RecentUserWrites(@Value("${app.datasource.replicas.stickyMillis:5000}") long stickyMillis) {
+        this.stickyMillis = stickyMillis;
+    }
+
+    void mark(String email, String username) {
+        long until = System.currentTimeMillis() + stickyMillis;
+        writtenUntil.put(email, until);
+        writtenUntil.put(username, until);
+    }
+
+    boolean contains(String usernameOrEmail) {
+        var until = writtenUntil.get(usernameOrEmail);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    @Scheduled(fixedDelay = 10_000)
+    void prune() {
+        long now = System.currentTimeMillis();
+        writtenUntil.values().removeIf(until -> until <= now);
+    }
+}
@@ -0,0 +1,249 @@
+package d76.app.user.service;
+
+import d76.app.auth.exception.AuthErrorCode;
+import d76.app.core.exception.BusinessException;
+import d76.app.security.principal.AuthoritySets;
+import d76.app.user.entity.Role;
+import d76.app.user.repo.RoleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Immutable in-memory view of the role table: the source of managed role references for new users, of the
+ * authorities granted to principals, and of the bitmask encoding of those authorities in access tokens.
+ * <p>
+ * The catalog is loaded at startup and refreshed every {@code app.roleCatalog.refreshMillis}, or sooner when a
+ * lookup names a role or a token names a catalog version it does not know yet. A role's bit is its id, so only roles with ids below 63 can be encoded. Every catalog has a version
+ * derived from its (id, name) pairs; tokens carry it so a mask is never read against a different catalog.
+ * The previous catalog is kept after a reload so tokens minted just before it still decode.
+ */
+@Slf4j
+@Component
+public class RoleCatalog {
+
+    public static final String DEFAULT_ROLE = "USER";
+
+    private static final int MAX_BIT = 62;
+    // bounds the reloads triggered by lookups of unknown roles
+    private static final long MIN_RELOAD_INTERVAL_MILLIS = 1000;
+
+    private final RoleRepository roleRepository;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    private volatile Snapshot current;
+    private volatile Snapshot previous;
+    private volatile long loadedAt;
+
+    RoleCatalog(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    public int version() {
+        return snapshot().version();
+    }
+
+    /**
+     * Managed reference to the role named {@code name}, for associating it without loading the row.
+     * Only usable inside the caller's transaction.
+     */
+    public Role reference(String name) {
+        Long id = lookup(name).idByName().get(name);
+        if (id == null) {
+            throw new BusinessException(AuthErrorCode.ROLE_NOT_FOUND, "No role exists with name: " + name);
+        }
+        return roleRepository.getReferenceById(id);
+    }
+
+    public boolean exists(String name) {
+        return lookup(name).idByName().containsKey(name);
+    }
+
+    /**
+     * Canonical authority list for the named roles.
+     */
+    public List<GrantedAuthority> authorities(Collection<String> roleNames) {
+        var snapshot = snapshot();
+
+        List<GrantedAuthority> authorities = new ArrayList<>(roleNames.size());
+        for (var name : roleNames) {
+            var authority = snapshot.authorityByName().get(name);
+            // a role added since the last refresh still gets its authority, it just has no bit yet
+            authorities.add(authority != null ? authority : AuthoritySets.role(name));
+        }
+        return AuthoritySets.canonical(authorities);
+    }
+
+    /**
+     * Bitmask for {@code authorities}, or -1 if any of them has no bit in the current catalog.
+     */
+    public long encode(Collection<? extends GrantedAuthority> authorities) {
+        var snapshot = snapshot();
+
+        long mask = 0;
+        for (var authority : authorities) {
+            Integer bit = snapshot.bitByAuthority().get(authority.getAuthority());
+            if (bit == null) return -1;
+            mask |= 1L << bit;
+        }
+        return mask;
+    }
+
+    /**
+     * Canonical authority list for a mask written against catalog {@code version},
+     * or null if that catalog is unknown or the mask has bits it does not define.
+     */
+    public List<GrantedAuthority> decode(long mask, int version) {
+        // loads the first catalog if the preload failed
+        snapshot();
+        var snapshot = find(version);
+        if (snapshot == null) {
+            // minted by a node that has already picked up a role change
+            reloadUnlessRecent();
+            snapshot = find(version);
+        }
+        return snapshot != null ? snapshot.authorities(mask) : null;
+    }
+
+    /**
+     * Whether catalog {@code version} is loaded, so {@link #decode} can answer without querying the database.
+     */
+    public boolean knows(int version) {
+        return find(version) != null;
+    }
+
+    // loaded up front so decoding only queries the database for a catalog version it has not seen
+    @EventListener(ApplicationReadyEvent.class)
+    void preload() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("Failed to preload role catalog: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.roleCatalog.refreshMillis:300000}",
+            fixedDelayString = "${app.roleCatalog.refreshMillis:300000}"
+    )
+    void refresh() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh role catalog: {}", e.getMessage());
+        }
+    }
+
+    public void reload() {
+        // a lock rather than synchronized: a virtual thread blocked on the query inside synchronized would pin its carrier
+        reloadLock.lock();
+        try {
+            var roles = roleRepository.findAll();
+            roles.sort(Comparator.comparing(Role::getId));
+
+            var next = Snapshot.of(roles);
+            loadedAt = System.currentTimeMillis();
+            if (current == null || current.version() != next.version()) {
+                previous = current;
+                current = next;
+                log.info("Loaded role catalog version={} roles={}", next.version(), next.bitByAuthority().keySet());
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    // reloads once for a name the catalog does not know, unless it was just loaded
+    private Snapshot lookup(String name) {
+        var snapshot = snapshot();
+        if (snapshot.idByName().containsKey(name)) return snapshot;
+
+        reloadUnlessRecent();
+        return current;
+    }
+
+    // checked again under the lock, so a burst of misses waiting on one reload does not query again
+    private void reloadUnlessRecent() {
+        if (System.currentTimeMillis() - loadedAt < MIN_RELOAD_INTERVAL_MILLIS) return;
+
+        reloadLock.lock();
+        try {
+            if (System.currentTimeMillis() - loadedAt >= MIN_RELOAD_INTERVAL_MILLIS) reload();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private Snapshot find(int version) {
+        var snapshot = current;
+        if (snapshot != null && snapshot.version() == version) return snapshot;
+
+        snapshot = previous;
+        return snapshot != null && snapshot.version() == version ? snapshot : null;
+    }
+
+    private Snapshot snapshot() {
+        var snapshot = current;
+        if (snapshot == null) {
+            reload();
+            snapshot = current;
+        }
+        return snapshot;
+    }
+
+    private record Snapshot(
+            int version,
+            GrantedAuthority[] byBit,
+            long definedBits,
+            Map<String, Integer> bitByAuthority,
+            Map<String, Long> idByName,
+            Map<String, GrantedAuthority> authorityByName,
+            Map<Long, List<GrantedAuthority>> byMask
+    ) {
+
+        static Snapshot of(List<Role> roles) {
+            var byBit = new GrantedAuthority[MAX_BIT + 1];
+            Map<String, Integer> bitByAuthority = new HashMap<>();
+            Map<String, Long> idByName = new HashMap<>();
+            Map<String, GrantedAuthority> authorityByName = new HashMap<>();
+            long definedBits = 0;
+            int version = 1;
+
+            for (var role : roles) {
+                version = 31 * version + Objects.hash(role.getId(), role.getName());
+                var authority = AuthoritySets.role(role.getName());
+                idByName.put(role.getName(), role.getId());
+                authorityByName.put(role.getName(), authority);
+                if (role.getId() == null || role.getId() < 0 || role.getId() > MAX_BIT) continue;
+
+                int bit = role.getId().intValue();
+                byBit[bit] = authority;
+                bitByAuthority.put(authority.getAuthority(), bit);
+                definedBits |= 1L << bit;
+            }
+            return new Snapshot(version, byBit, definedBits, Map.copyOf(bitByAuthority), Map.copyOf(idByName),
+                    Map.copyOf(authorityByName), new ConcurrentHashMap<>());
+        }
+
+        List<GrantedAuthority> authorities(long mask) {
+            if ((mask & ~definedBits) != 0) return null;
+
+            var cached = byMask.get(mask);
+            if (cached != null) return cached;
+
+            List<GrantedAuthority> authorities = new ArrayList<>(Long.bitCount(mask));
+            for (long bits = mask; bits != 0; bits &= bits - 1) {
+                authorities.add(byBit[Long.numberOfTrailingZeros(bits)]);
+            }
+            // masks only come from signed tokens, so the number of distinct ones is bounded by the role combinations in use
+            return byMask.computeIfAbsent(mask, m -> AuthoritySets.canonical(authorities));
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package d76.app.user.service;
+
+import d76.app.core.datasource.ReadRouting;
+import d76.app.core.event.ClusterEventBus;
+import d76.app.core.metrics.MetricsSource;
+import d76.app.core.util.BloomFilter;
+import d76.app.user.model.UserIdentifiers;
+import d76.app.user.repo.UsersRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filters of taken usernames and emails, so most availability checks are answered without a query.
+ * <p>
+ * "Not in the filter" means the name is free; "maybe" is confirmed against the database. The filters are seeded
+ * by streaming the users table once the application is ready and rebuilt every {@code app.availabilityFilter.rebuildMillis}.
+ * New users are added on every node through the {@link ClusterEventBus} once their transaction commits; the rebuild
+ * repairs missed messages. It reads the primary, and additions made while it streams are replayed into the new
+ * filters, so a user committed at any point before the swap is never reported free. Until the first seed completes
+ * every check goes to the database.
+ */
+@Slf4j
+@Component
+public class UserAvailabilityFilter implements MetricsSource {
+
+    private static final String CHANNEL = "user:identifiers-taken";
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final UsersRepository usersRepository;
+    private final RecentUserWrites recentWrites;
+    private final ClusterEventBus eventBus;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long expectedUsers;
+
+    private final Object writeLock = new Object();
+
+    private volatile Filters filters;
+    // additions seen while a rebuild is streaming the table, replayed into the new filters before they go live
+    private List<String[]> pendingDuringRebuild;
+
+    private final LongAdder answeredByFilter = new LongAdder();
+    private final LongAdder checkedInDatabase = new LongAdder();
+    private final LongAdder confirmedTaken = new LongAdder();
+
+    UserAvailabilityFilter(
+            UsersRepository usersRepository,
+            RecentUserWrites recentWrites,
+            ClusterEventBus eventBus,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.availabilityFilter.expectedUsers:1000000}") long expectedUsers
+    ) {
+        this.usersRepository = usersRepository;
+        this.recentWrites = recentWrites;
+        this.eventBus = eventBus;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.expectedUsers = expectedUsers;
+    }
+
+    public boolean isUsernameTaken(String username) {
+        var current = filters;
+        if (current == null) return existsByUsername(username);
+
+        if (!current.usernames().mightContain(username)) {
+            answeredByFilter.increment();
+            return false;
+        }
+        return confirm(existsByUsername(username));
+    }
+
+    public boolean isEmailTaken(String email) {
+        var current = filters;
+        if (current == null) return existsByEmail(email);
+
+        if (!current.emails().mightContain(email)) {
+            answeredByFilter.increment();
+            return false;
+        }
+        return confirm(existsByEmail(email));
+    }
+
+    /**
+     * Marks both identifiers as taken on every node, once the current transaction commits.
+     */
+    public void add(String username, String email) {
+        addAll(List.of(new UserIdentifiers(username, email)));
+    }
+
+    /**
+     * {@link #add} for many users with a single broadcast.
+     */
+    public void addAll(List<UserIdentifiers> users) {
+        if (users.isEmpty()) return;
+
+        // added before the commit, a rebuild could start and snapshot the table in between and miss the user
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addNow(users);
+                }
+            });
+        } else {
+            addNow(users);
+        }
+    }
+
+    private void addNow(List<UserIdentifiers> users) {
+        var message = new StringBuilder();
+        for (var user : users) {
+            addLocal(user.username(), user.email());
+            if (!message.isEmpty()) message.append('\n');
+            message.append(user.username()).append('\n').append(user.email());
+        }
+
+        try {
+            eventBus.publish(CHANNEL, message.toString());
+        } catch (RuntimeException e) {
+            // other nodes check the database for them until their next rebuild
+            log.warn("Failed to distribute new user identifiers: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        eventBus.subscribe(CHANNEL, this::onMessage);
+        rebuild();
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.availabilityFilter.rebuildMillis:3600000}",
+            fixedDelayString = "${app.availabilityFilter.rebuildMillis:3600000}"
+    )
+    void rebuild() {
+        synchronized (writeLock) {
+            pendingDuringRebuild = new ArrayList<>();
+        }
+
+        try {
+            // a lagging replica would leave out the latest users, which the filter would then report free
+            long count = ReadRouting.onPrimary(usersRepository::count);
+            var next = new Filters(
+                    BloomFilter.create(Math.max(expectedUsers, count * 2), FALSE_POSITIVE_RATE),
+                    BloomFilter.create(Math.max(expectedUsers, count * 2), FALSE_POSITIVE_RATE)
+            );
+
+            ReadRouting.onPrimary(() -> readOnlyTransaction.execute(status -> {
+                try (var identifiers = usersRepository.streamAllIdentifiers()) {
+                    identifiers.forEach(user -> next.put(user.username(), user.email()));
+                }
+                return null;
+            }));
+
+            synchronized (writeLock) {
+                pendingDuringRebuild.forEach(pending -> next.put(pending[0], pending[1]));
+                filters = next;
+            }
+            log.info("Availability filter built users={} fillRatio={}", count, next.usernames().fillRatio());
+        } catch (RuntimeException e) {
+            log.warn("Failed to build availability filter: {}", e.getMessage());
+        } finally {
+            synchronized (writeLock) {
+                pendingDuringRebuild = null;
+            }
+        }
+    }
+
+    // a replica may not have replayed a registration from moments ago
+    private boolean existsByUsername(String username) {
+        return recentWrites.contains(username)
+                ? ReadRouting.onPrimary(() -> usersRepository.existsByUsername(username))
+                : usersRepository.existsByUsername(username);
+    }
+
+    private boolean existsByEmail(String email) {
+        return recentWrites.contains(email)
+                ? ReadRouting.onPrimary(() -> usersRepository.existsByEmail(email))
+                : usersRepository.existsByEmail(email);
+    }
+
+    private boolean confirm(boolean taken) {
+        checkedInDatabase.increment();
+        if (taken) confirmedTaken.increment();
+        return taken;
+    }
+
+    // username and email lines alternate
+    private void onMessage(String message) {
+        var lines = message.split("\n");
+        for (int i = 0; i + 1 < lines.length; i += 2) {
+            addLocal(lines[i], lines[i + 1]);
+        }
+    }
+
+    private void addLocal(String username, String email) {
+        synchronized (writeLock) {
+            var current = filters;
+            if (current != null) current.put(username, email);
+            if (pendingDuringRebuild != null) pendingDuringRebuild.add(new String[]{username, email});
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "user.availabilityFilter";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        var current = filters;
+        metrics.put("ready", current != null);
+        if (current != null) {
+            metrics.put("usernameFillRatio", current.usernames().fillRatio());
+            metrics.put("usernameFalsePositiveRate", current.usernames().expectedFalsePositiveRate());
+            metrics.put("emailFillRatio", current.emails().fillRatio());
+            metrics.put("emailFalsePositiveRate", current.emails().expectedFalsePositiveRate());
+        }
+        metrics.put("answeredByFilter", answeredByFilter.sum());
+        metrics.put("checkedInDatabase", checkedInDatabase.sum());
+        // "maybe" answers the database found free were filter false positives
+        metrics.put("falsePositives", checkedInDatabase.sum() - confirmedTaken.sum());
+        return metrics;
+    }
+
+    private record Filters(BloomFilter usernames, BloomFilter emails) {
+
+        void put(String username, String email) {
+            usernames.put(username);
+            emails.put(email);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package d76.app.user.service;
 
 import d76.app.auth.exception.AuthErrorCode;
 import d76.app.auth.model.IdentityProvider;
+import d76.app.core.datasource.ReadRouting;
 import d76.app.core.exception.BusinessException;
 import d76.app.security.jwt.JwtService;
 import d76.app.security.jwt.model.JwtPurpose;
@@ -10,7 +11,7 @@ import d76.app.user.dto.password.VerifyPasswordResponse;
 import d76.app.user.entity.Role;
 import d76.app.user.entity.Users;
 import d76.app.user.exception.UserErrorCode;
-import d76.app.user.repo.RoleRepository;
+import d76.app.user.model.UserSnapshot;
 import d76.app.user.repo.UsersRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -21,27 +22,27 @@ import java.time.Instant;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
     private final UsersRepository usersRepository;
-    private final RoleRepository roleRepository;
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
-
-    private final String DEFAULT_ROLE = "USER";
+    private final RoleCatalog roleCatalog;
+    private final UserSnapshotCache snapshotCache;
+    private final UserAvailabilityFilter availabilityFilter;
+    private final RecentUserWrites recentWrites;
 
     @Transactional
     public Users createLocalUser(String email, String username, String password) {
 
-        //ensure the availability
-        assertEmailAvailable(email);
-        assertUsernameAvailable(username);
+        //ensure the availability, exactly: the filter could miss a user another node just created
+        assertUnused(email, username);
 
-        Role role = loadDefaultRole();
-        Set<Role> roles = new HashSet<>(Set.of(role));
+        Set<Role> roles = new HashSet<>(Set.of(roleCatalog.reference(RoleCatalog.DEFAULT_ROLE)));
 
         Set<IdentityProvider> identityProviders = new HashSet<>(Set.of(IdentityProvider.EMAIL));
 
@@ -53,17 +54,17 @@ public class UserService {
                 .roles(roles)
                 .build();
 
+        snapshotCache.evict(email, username);
+        availabilityFilter.add(username, email);
         return usersRepository.save(user);
     }
 
     @Transactional
     public Users createOAuthUser(String email, String username, IdentityProvider identityProvider) {
 
-        assertUsernameAvailable(username);
-        assertEmailAvailable(email);
+        assertUnused(email, username);
 
-        Role role = loadDefaultRole();
-        Set<Role> roles = new HashSet<>(Set.of(role));
+        Set<Role> roles = new HashSet<>(Set.of(roleCatalog.reference(RoleCatalog.DEFAULT_ROLE)));
 
         Set<IdentityProvider> identityProviders = new HashSet<>(Set.of(identityProvider));
 
@@ -75,6 +76,8 @@ public class UserService {
                 .roles(roles)
                 .build();
 
+        snapshotCache.evict(email, username);
+        availabilityFilter.add(username, email);
         return usersRepository.save(user);
     }
 
@@ -87,27 +90,39 @@ public class UserService {
         var email = claims.getSubject();
         var provider = IdentityProvider.fromClient(claims.get("identityProvider", String.class));
 
-        Users user = loadUserByEmail(email);
-
-        if (user.getIdentityProviders().contains(provider)) {
+        // one conditional insert, so concurrent links of different providers cannot overwrite each other
+        var username = usersRepository.linkAuthProvider(email, provider.name());
+        if (username.isEmpty()) {
+            assertUserExistByEmail(email);
             throw new BusinessException(UserErrorCode.AUTH_PROVIDER_ALREADY_LINKED,
                     "IdentityProvider " + provider.name() + " already linked with the account");
         }
 
-        user.getIdentityProviders().add(provider);
-        usersRepository.save(user);
+        snapshotCache.evict(email, username.get());
     }
 
     @Transactional
     public void updatePassword(String email, String newPassword) {
-        var user = loadUserByEmail(email);
+        var snapshot = loadSnapshotByEmail(email);
 
-        if (passwordEncoder.matches(newPassword, user.getPassword())) {
+        if (passwordEncoder.matches(newPassword, snapshot.passwordHash())) {
             throw new BusinessException(UserErrorCode.SAME_PASSWORD);
         }
 
+        var user = loadUserByEmail(email);
         user.setPassword(passwordEncoder.encode(newPassword));
         usersRepository.save(user);
+        snapshotCache.evict(user.getEmail(), user.getUsername());
+    }
+
+    /**
+     * Replaces {@code currentHash} with a hash of the same password under the current hashing parameters.
+     * Does nothing if the password was changed since {@code currentHash} was read.
+     */
+    @Transactional
+    public void rehashPassword(Long userId, String email, String currentHash, String encodedPassword) {
+        usersRepository.replacePassword(userId, currentHash, encodedPassword)
+                .ifPresent(username -> snapshotCache.evict(email, username));
     }
 
     @Transactional
@@ -118,9 +133,9 @@ public class UserService {
     }
 
     public VerifyPasswordResponse verify(String email, String password) {
-        var user = loadUserByEmail(email);
+        var user = loadSnapshotByEmail(email);
 
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        if (!passwordEncoder.matches(password, user.passwordHash())) {
             throw new BusinessException(UserErrorCode.INCORRECT_PASSWORD);
         }
 
@@ -130,30 +145,46 @@ public class UserService {
 
     //helper
     public void assertEmailAvailable(String email) {
-        if (usersRepository.existsByEmail(email)) {
+        if (availabilityFilter.isEmailTaken(email)) {
             throw new BusinessException(AuthErrorCode.EMAIL_ALREADY_REGISTERED);
         }
     }
 
     public void assertUsernameAvailable(String username) {
-        if (usersRepository.existsByUsername(username)) {
+        if (availabilityFilter.isUsernameTaken(username)) {
             throw new BusinessException(AuthErrorCode.USERNAME_TAKEN);
         }
     }
 
     public void assertUserExistByEmail(String email) {
-        if (!usersRepository.existsByEmail(email))
+        if (!readFor(email, () -> usersRepository.existsByEmail(email)))
             throw new BusinessException(UserErrorCode.USER_NOT_FOUND, "No user exists with the email: " + email);
     }
 
-    private Role loadDefaultRole() {
-        return roleRepository.findByName(DEFAULT_ROLE).orElseThrow(
-                () -> new BusinessException(AuthErrorCode.ROLE_NOT_FOUND, "No role exists with name: " + DEFAULT_ROLE)
-        );
+    public boolean isUserNameAvailable(String username) {
+        return !availabilityFilter.isUsernameTaken(username);
     }
 
-    public boolean isUserNameAvailable(String username) {
-        return !usersRepository.existsByUsername(username);
+    // routed by shape so each lookup hits one unique index; usernames may contain '@', hence the fallback
+    private Optional<UserSnapshot> findAuthView(String usernameOrEmail) {
+        var view = usernameOrEmail.indexOf('@') >= 0
+                ? usersRepository.findAuthViewByEmail(usernameOrEmail).or(() -> usersRepository.findAuthViewByUsername(usernameOrEmail))
+                : usersRepository.findAuthViewByUsername(usernameOrEmail);
+        return view.map(UserSnapshot::of);
+    }
+
+    // read-only queries may be served by a replica; users written moments ago are read from the primary instead
+    private <T> T readFor(String usernameOrEmail, Supplier<T> query) {
+        return recentWrites.contains(usernameOrEmail) ? ReadRouting.onPrimary(query) : query.get();
+    }
+
+    private void assertUnused(String email, String username) {
+        if (usersRepository.existsByEmail(email)) {
+            throw new BusinessException(AuthErrorCode.EMAIL_ALREADY_REGISTERED);
+        }
+        if (usersRepository.existsByUsername(username)) {
+            throw new BusinessException(AuthErrorCode.USERNAME_TAKEN);
+        }
     }
 
     public Users loadUserByEmail(String email) {
@@ -163,11 +194,23 @@ public class UserService {
     }
 
     public Optional<Users> findUserByEmail(String email) {
-        return usersRepository.findByEmail(email);
+        return readFor(email, () -> usersRepository.findByEmail(email));
+    }
+
+    public Optional<UserSnapshot> findSnapshotByEmail(String email) {
+        return snapshotCache.get(UserSnapshotCache.emailKey(email),
+                () -> readFor(email, () -> usersRepository.findAuthViewByEmail(email).map(UserSnapshot::of)));
+    }
+
+    public UserSnapshot loadSnapshotByEmail(String email) {
+        return findSnapshotByEmail(email).orElseThrow(
+                () -> new BusinessException(UserErrorCode.USER_NOT_FOUND, "No user exists with the email: " + email)
+        );
     }
 
-    public Users loadUserByEmailOrUsername(String usernameOrEmail) {
-        return usersRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail)
+    public UserSnapshot loadSnapshotByEmailOrUsername(String usernameOrEmail) {
+        return snapshotCache.get(UserSnapshotCache.anyKey(usernameOrEmail),
+                        () -> readFor(usernameOrEmail, () -> findAuthView(usernameOrEmail)))
                 .orElseThrow(() -> new BusinessException(UserErrorCode.USER_NOT_FOUND, "No user exists with: " + usernameOrEmail));
     }
 }
@@ -0,0 +1,257 @@
+package d76.app.user.service;
+
+import d76.app.core.event.ClusterEventBus;
+import d76.app.core.metrics.MetricsSource;
+import d76.app.core.service.CacheService;
+import d76.app.user.model.UserSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Near-cache of {@link UserSnapshot}s for the login and re-auth lookups.
+ * <p>
+ * The first tier is a bounded in-process LRU, the optional second tier is Redis ({@code app.userCache.redis.enabled}).
+ * Writes evict the user's entries after their transaction commits, on this node and on every other node through
+ * the {@link ClusterEventBus}; entries also expire after {@code app.userCache.ttlSeconds} in case a node misses
+ * a message. Only hits are cached, so a lookup for an unknown user always reaches the database.
+ * <p>
+ * In Redis a write replaces the user's entries with tombstones for {@code app.userCache.redis.tombstoneSeconds},
+ * and loads only fill absent keys, so a load on any node that read the row before the write committed cannot put
+ * the old snapshot back.
+ */
+@Slf4j
+@Component
+public class UserSnapshotCache implements MetricsSource {
+
+    private static final String CHANNEL = "user:snapshot-evictions";
+    private static final String REDIS_KEY_PREFIX = "user:snapshot:";
+    private static final String TOMBSTONE = "evicted";
+
+    private final ClusterEventBus eventBus;
+    private final CacheService cacheService;
+    private final RecentUserWrites recentWrites;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final boolean redisEnabled;
+    private final long tombstoneSeconds;
+
+    // access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // bumped on every eviction; a load that started before one is not cached, it may have read the old row
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder redisHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    UserSnapshotCache(
+            ClusterEventBus eventBus,
+            CacheService cacheService,
+            RecentUserWrites recentWrites,
+            @Value("${app.userCache.maxSize:10000}") int maxSize,
+            @Value("${app.userCache.ttlSeconds:300}") long ttlSeconds,
+            @Value("${app.userCache.redis.enabled:false}") boolean redisEnabled,
+            @Value("${app.userCache.redis.tombstoneSeconds:30}") long tombstoneSeconds
+    ) {
+        this.eventBus = eventBus;
+        this.cacheService = cacheService;
+        this.recentWrites = recentWrites;
+        this.maxSize = maxSize;
+        this.ttlMillis = Duration.ofSeconds(ttlSeconds).toMillis();
+        this.redisEnabled = redisEnabled;
+        this.tombstoneSeconds = tombstoneSeconds;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        eventBus.subscribe(CHANNEL, this::onMessage);
+    }
+
+    Optional<UserSnapshot> get(String key, Supplier<Optional<UserSnapshot>> loader) {
+        long now = System.currentTimeMillis();
+
+        var local = getLocal(key, now);
+        if (local != null) {
+            hits.increment();
+            return Optional.of(local);
+        }
+
+        long startGeneration = generation.get();
+
+        if (redisEnabled) {
+            var remote = getRemote(key);
+            if (remote.isPresent()) {
+                redisHits.increment();
+                putLocal(key, remote.get(), now, startGeneration);
+                return remote;
+            }
+        }
+
+        misses.increment();
+        var loaded = loader.get();
+        loaded.ifPresent(snapshot -> {
+            putLocal(key, snapshot, now, startGeneration);
+            if (redisEnabled && generation.get() == startGeneration) putRemote(key, snapshot);
+        });
+        return loaded;
+    }
+
+    /**
+     * Evicts every entry of the user once the current transaction commits, or right away outside of one.
+     */
+    void evict(String email, String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(email, username);
+                }
+            });
+        } else {
+            evictNow(email, username);
+        }
+    }
+
+    static String anyKey(String usernameOrEmail) {
+        return "any:" + usernameOrEmail;
+    }
+
+    static String emailKey(String email) {
+        return "email:" + email;
+    }
+
+    private void evictNow(String email, String username) {
+        evictLocal(email, username);
+
+        try {
+            if (redisEnabled) {
+                // overwrites a stale snapshot put back between the commit and now, and blocks any put after it
+                Map<String, String> tombstones = new HashMap<>();
+                for (var key : List.of(anyKey(email), anyKey(username), emailKey(email))) {
+                    tombstones.put(REDIS_KEY_PREFIX + key, TOMBSTONE);
+                }
+                cacheService.putAll(tombstones, tombstoneSeconds, TimeUnit.SECONDS);
+            }
+            eventBus.publish(CHANNEL, email + "\n" + username);
+        } catch (RuntimeException e) {
+            // other nodes drop the entry when it expires
+            log.warn("Failed to distribute user cache eviction user={}: {}", email, e.getMessage());
+        }
+    }
+
+    private void onMessage(String message) {
+        int newline = message.indexOf('\n');
+        if (newline <= 0) return;
+
+        evictLocal(message.substring(0, newline), message.substring(newline + 1));
+    }
+
+    private void evictLocal(String email, String username) {
+        recentWrites.mark(email, username);
+
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            entries.remove(anyKey(email));
+            entries.remove(anyKey(username));
+            entries.remove(emailKey(email));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private UserSnapshot getLocal(String key, long now) {
+        lock.lock();
+        try {
+            var entry = entries.get(key);
+            if (entry == null) return null;
+
+            if (entry.expiresAt() <= now) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.snapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void putLocal(String key, UserSnapshot snapshot, long now, long startGeneration) {
+        lock.lock();
+        try {
+            if (generation.get() != startGeneration) return;
+
+            entries.put(key, new Entry(snapshot, now + ttlMillis));
+            if (entries.size() > maxSize) {
+                var eldest = entries.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Optional<UserSnapshot> getRemote(String key) {
+        try {
+            return cacheService.get(REDIS_KEY_PREFIX + key, UserSnapshot.class);
+        } catch (RuntimeException e) {
+            log.warn("Failed to read user cache from redis: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void putRemote(String key, UserSnapshot snapshot) {
+        try {
+            // a tombstone or a newer snapshot stays; the generation check above only covers this node
+            cacheService.putIfAbsent(REDIS_KEY_PREFIX + key, snapshot, ttlMillis, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            log.warn("Failed to write user cache to redis: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "user.snapshotCache";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        int size;
+        lock.lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        return Map.of(
+                "size", size,
+                "maxSize", maxSize,
+                "hits", hits.sum(),
+                "redisHits", redisHits.sum(),
+                "misses", misses.sum()
+        );
+    }
+
+    private record Entry(UserSnapshot snapshot, long expiresAt) {
+    }
+}
@@ -0,0 +1,76 @@
+package d76.app.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long TICK = 1000;
+
+    @Test
+    void pollsInDeadlineOrderWithinTheFirstLevel() {
+        var wheel = new TimingWheel<String>(TICK, 0);
+        wheel.schedule("c", 30 * TICK);
+        wheel.schedule("a", 10 * TICK);
+        wheel.schedule("b", 20 * TICK);
+
+        assertThat(pollAll(wheel)).containsExactly("a", "b", "c");
+        assertThat(wheel.size()).isZero();
+        assertThat(wheel.pollEarliest()).isNull();
+    }
+
+    @Test
+    void pollsTheCurrentCoarseSlotLast() {
+        var wheel = new TimingWheel<String>(TICK, 0);
+        wheel.advance(70 * TICK, timer -> {
+        });
+
+        // tick 4160 lands on level 1 in the slot of the current block (70 / 64 == 4160 / 64 % 64): a full turn away
+        wheel.schedule("far", 4160 * TICK);
+        wheel.schedule("near", 200 * TICK);
+
+        assertThat(pollAll(wheel)).containsExactly("near", "far");
+    }
+
+    @Test
+    void prefersACoarserSlotThatStartsSooner() {
+        var wheel = new TimingWheel<String>(TICK, 0);
+        // level 1 when scheduled, and not redistributed until tick 64
+        wheel.schedule("coarse", 64 * TICK);
+        wheel.advance(60 * TICK, timer -> {
+        });
+        wheel.schedule("fine", 120 * TICK);
+
+        assertThat(pollAll(wheel)).containsExactly("coarse", "fine");
+    }
+
+    @Test
+    void advanceFiresDueTimersAndSkipsCancelledOnes() {
+        var wheel = new TimingWheel<String>(TICK, 0);
+        wheel.schedule("due", 5 * TICK);
+        var cancelled = wheel.schedule("cancelled", 5 * TICK);
+        wheel.schedule("later", 5000 * TICK);
+        wheel.cancel(cancelled);
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(10 * TICK, timer -> fired.add(timer.item()));
+
+        assertThat(fired).containsExactly("due");
+        assertThat(wheel.size()).isEqualTo(1);
+
+        wheel.advance(5000 * TICK, timer -> fired.add(timer.item()));
+        assertThat(fired).containsExactly("due", "later");
+    }
+
+    private static List<String> pollAll(TimingWheel<String> wheel) {
+        List<String> polled = new ArrayList<>();
+        for (var timer = wheel.pollEarliest(); timer != null; timer = wheel.pollEarliest()) {
+            polled.add(timer.item());
+        }
+        return polled;
+    }
+}
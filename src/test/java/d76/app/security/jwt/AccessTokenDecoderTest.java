@@ -0,0 +1,207 @@
+package d76.app.security.jwt;
+
+import d76.app.auth.exception.AuthErrorCode;
+import d76.app.core.exception.BusinessException;
+import d76.app.security.jwt.key.JwtKeyRing;
+import d76.app.security.jwt.key.TestKeyRings;
+import d76.app.security.jwt.model.JwtPurpose;
+import d76.app.security.revocation.TestRevocations;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AccessTokenDecoderTest {
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+    private static final String HS256 = "{\"alg\":\"HS256\"}";
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+
+    private JwtKeyRing keyRing;
+    private JwtService jwtService;
+    private TokenMinter minter;
+    private AccessTokenDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        keyRing = TestKeyRings.hs256();
+        jwtService = new JwtService(keyRing, null, false, 900, 300, 180);
+        minter = new TokenMinter(keyRing);
+        decoder = decoderFor(keyRing);
+    }
+
+    @Test
+    void agreesWithJjwtOnMintedTokens() {
+        var emails = List.of("user@example.com", "o'brien+\"quoted\"\\@例え.jp", "tab\there\u0001@example.com");
+        var roleLists = List.of(List.<String>of(), List.of("ROLE_USER"), List.of("ROLE_USER", "ROLE_ADMIN"));
+
+        for (var email : emails) {
+            for (var roles : roleLists) {
+                String token = minter.accessToken(123456789L, email, "GITHUB", roles, 600);
+
+                var claims = decoder.decode(token);
+                var jjwt = jwtService.extractClaims(token);
+
+                assertThat(claims.tokenId()).isEqualTo(jjwt.getId());
+                assertThat(claims.userId()).isEqualTo(Long.parseLong(jjwt.getSubject()));
+                assertThat(claims.email()).isEqualTo(jjwt.get("email", String.class));
+                assertThat(claims.identityProvider().name()).isEqualTo(jjwt.get("identityProvider", String.class));
+                assertThat(claims.authorities()).extracting(GrantedAuthority::getAuthority)
+                        .containsExactlyInAnyOrderElementsOf(roles);
+                assertThat(claims.expiresAtEpochSecond()).isEqualTo(jjwt.getExpiration().getTime() / 1000);
+            }
+        }
+    }
+
+    @Test
+    void rejectsATamperedSignature() {
+        String token = minter.accessToken(1, "user@example.com", "EMAIL", List.of("ROLE_USER"), 600);
+        int signatureStart = token.lastIndexOf('.') + 1;
+
+        assertRejected(flip(token, signatureStart, 0b100000));
+        assertRejected(flip(token, token.length() - 1, 0b100000));
+        assertRejected(token.substring(0, token.length() - 1));
+        assertRejected(token.substring(0, signatureStart));
+    }
+
+    @Test
+    void rejectsANonCanonicalSignatureEncoding() {
+        String token = minter.accessToken(1, "user@example.com", "EMAIL", List.of("ROLE_USER"), 600);
+
+        // the last of 43 characters carries 4 bits of the 32-byte signature; its 2 low bits are padding
+        assertRejected(flip(token, token.length() - 1, 0b01));
+    }
+
+    @Test
+    void rejectsATamperedPayload() {
+        String token = minter.accessToken(1, "user@example.com", "EMAIL", List.of("ROLE_USER"), 600);
+
+        assertRejected(flip(token, token.indexOf('.') + 5, 0b100000));
+    }
+
+    @Test
+    void rejectsATokenSignedWithAnotherKey() {
+        String payload = accessPayload("\"1\"", 600);
+
+        assertRejected(sign(HS256, payload, "another-secret-another-secret-another-secret-0123"));
+    }
+
+    @Test
+    void rejectsAWrongOrMissingAlgorithm() {
+        String payload = accessPayload("\"1\"", 600);
+
+        assertRejected(encode("{\"alg\":\"none\"}") + "." + encode(payload) + ".");
+        assertRejected(sign("{\"typ\":\"JWT\"}", payload, TestKeyRings.SECRET));
+        assertRejected(sign("{\"alg\":\"HS512\"}", payload, TestKeyRings.SECRET));
+        assertRejected(sign("{\"alg\":\"RS256\"}", payload, TestKeyRings.SECRET));
+    }
+
+    @Test
+    void acceptsAHandSignedAccessToken() {
+        var claims = decoder.decode(sign(HS256, accessPayload("\"42\"", 600), TestKeyRings.SECRET));
+
+        assertThat(claims.userId()).isEqualTo(42);
+    }
+
+    @Test
+    void rejectsATokenWithAPurpose() {
+        String payload = accessPayload("\"1\"", 600);
+        String withPurpose = payload.substring(0, payload.length() - 1) + ",\"purpose\":\"REAUTH\"}";
+
+        assertRejected(sign(HS256, withPurpose, TestKeyRings.SECRET));
+        assertRejected(minter.purposeToken("user@example.com", JwtPurpose.REAUTH, null, 600));
+        assertRejected(minter.purposeToken("user@example.com", JwtPurpose.SOCIAL_REGISTER, "GITHUB", 600));
+    }
+
+    @Test
+    void rejectsAnExpiredToken() {
+        assertRejected(minter.accessToken(1, "user@example.com", "EMAIL", List.of("ROLE_USER"), -60));
+        assertRejected(sign(HS256, accessPayload("\"1\"", 0), TestKeyRings.SECRET));
+    }
+
+    @Test
+    void rejectsAMalformedSubject() {
+        for (var subject : List.of("\"\"", "\"12a\"", "\"-1\"", "\"1234567890123456789\"", "42", "null", "[\"1\"]")) {
+            assertRejected(sign(HS256, accessPayload(subject, 600), TestKeyRings.SECRET));
+        }
+    }
+
+    @Test
+    void rejectsSecretTokensOnceAsymmetricSigningRetiredTheSecret() {
+        var ring = TestKeyRings.asymmetric("ES256", 0, false);
+        var asymmetricDecoder = decoderFor(ring);
+        String payload = accessPayload("\"1\"", 600);
+
+        // the fast path and the parser path (any other header) both consult the key ring
+        assertRejected(asymmetricDecoder, sign(HS256, payload, TestKeyRings.SECRET));
+        assertRejected(asymmetricDecoder, sign("{\"typ\":\"JWT\",\"alg\":\"HS256\"}", payload, TestKeyRings.SECRET));
+
+        String own = new TokenMinter(ring).accessToken(1, "user@example.com", "EMAIL", List.of("ROLE_USER"), 600);
+        assertThat(asymmetricDecoder.decode(own).userId()).isEqualTo(1);
+    }
+
+    @Test
+    void acceptsSecretTokensDuringTheGracePeriodOrWhenOptedIn() {
+        String payload = accessPayload("\"1\"", 600);
+
+        for (var ring : List.of(TestKeyRings.asymmetric("ES256", 600, false), TestKeyRings.asymmetric("ES256", 0, true))) {
+            var asymmetricDecoder = decoderFor(ring);
+
+            assertThat(asymmetricDecoder.decode(sign(HS256, payload, TestKeyRings.SECRET)).userId()).isEqualTo(1);
+            assertThat(asymmetricDecoder.decode(sign("{\"typ\":\"JWT\",\"alg\":\"HS256\"}", payload, TestKeyRings.SECRET))
+                    .userId()).isEqualTo(1);
+        }
+    }
+
+    private static AccessTokenDecoder decoderFor(JwtKeyRing keyRing) {
+        var jwtService = new JwtService(keyRing, null, false, 900, 300, 180);
+        return new AccessTokenDecoder(jwtService, keyRing, TestRevocations.empty(), null, false, 0);
+    }
+
+    private void assertRejected(String token) {
+        assertRejected(decoder, token);
+    }
+
+    private static void assertRejected(AccessTokenDecoder decoder, String token) {
+        assertThatThrownBy(() -> decoder.decode(token))
+                .as(token)
+                .isInstanceOfSatisfying(BusinessException.class,
+                        e -> assertThat(e.getErrorCode()).isEqualTo(AuthErrorCode.INVALID_TOKEN));
+    }
+
+    private static String accessPayload(String subject, long ttlSeconds) {
+        long now = System.currentTimeMillis() / 1000;
+        return "{\"jti\":\"id-1\",\"sub\":" + subject + ",\"email\":\"user@example.com\",\"identityProvider\":\"EMAIL\""
+                + ",\"roles\":[\"ROLE_USER\"],\"iat\":" + now + ",\"exp\":" + (now + ttlSeconds) + "}";
+    }
+
+    private static String sign(String header, String payload, String secret) {
+        String signingInput = encode(header) + "." + encode(payload);
+        try {
+            var mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return signingInput + "." + BASE64URL.encodeToString(mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(String json) {
+        return BASE64URL.encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // flips bits of one base64url character, so the token stays well-formed
+    private static String flip(String token, int index, int bits) {
+        int value = ALPHABET.indexOf(token.charAt(index)) ^ bits;
+        return token.substring(0, index) + ALPHABET.charAt(value) + token.substring(index + 1);
+    }
+}
@@ -0,0 +1,24 @@
+package d76.app.security.jwt.key;
+
+/**
+ * Key rings for tests and benchmarks, built without a Spring context. Nothing is published, so no cache is needed.
+ */
+public final class TestKeyRings {
+
+    public static final String SECRET = "test-secret-test-secret-test-secret-test-secret-0";
+
+    private TestKeyRings() {
+    }
+
+    public static JwtKeyRing hs256() {
+        return new JwtKeyRing(null, SECRET, "HS256", 86400, 3600, false, 900, 300, 180);
+    }
+
+    /**
+     * An asymmetric ring whose grace period for {@link #SECRET} tokens lasts {@code tokenTtlSeconds}.
+     */
+    public static JwtKeyRing asymmetric(String algorithm, long tokenTtlSeconds, boolean acceptSecretTokens) {
+        return new JwtKeyRing(null, SECRET, algorithm, 86400, 3600, acceptSecretTokens,
+                tokenTtlSeconds, tokenTtlSeconds, tokenTtlSeconds);
+    }
+}
@@ -0,0 +1,42 @@
+package d76.app.security.revocation;
+
+import d76.app.core.event.ClusterEventBus;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A revocation registry for tests and benchmarks, with nothing revoked and no cluster or store behind it.
+ */
+public final class TestRevocations {
+
+    private TestRevocations() {
+    }
+
+    public static RevokedTokenRegistry empty() {
+        var eventBus = new ClusterEventBus() {
+            @Override
+            public void publish(String channel, String message) {
+            }
+
+            @Override
+            public void subscribe(String channel, Consumer<String> listener) {
+            }
+        };
+        var store = new RevocationStore() {
+            @Override
+            public void add(String tokenId, long expiresAtEpochSecond) {
+            }
+
+            @Override
+            public Map<String, Long> snapshot(long nowEpochSecond) {
+                return Map.of();
+            }
+
+            @Override
+            public void prune(long nowEpochSecond) {
+            }
+        };
+        return new RevokedTokenRegistry(eventBus, store, 1000);
+    }
+}